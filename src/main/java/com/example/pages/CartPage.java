@@ -1,51 +1,58 @@
 package com.example.pages;
 
+import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 
 public class CartPage {
     private final Page page;
     
-    // Locators
-    private final String cartItem = ".cart_item";
-    private final String checkoutButton = "#checkout";
-    private final String continueShoppingButton = "#continue-shopping";
-    private final String removeButton = ".cart_button";
-    private final String itemName = ".inventory_item_name";
-    private final String itemPrice = ".inventory_item_price";
+    // Locators (built once per page instance, resolved lazily on each action)
+    private final Locator cartItems;
+    private final Locator checkoutButton;
+    private final Locator continueShoppingButton;
+    private final Locator removeButtons;
+    private final Locator itemNames;
+    private final Locator itemPrices;
     
     public CartPage(Page page) {
         this.page = page;
+        this.cartItems = page.locator(".cart_item");
+        this.checkoutButton = page.locator("#checkout");
+        this.continueShoppingButton = page.locator("#continue-shopping");
+        this.removeButtons = page.locator(".cart_button");
+        this.itemNames = page.locator(".inventory_item_name");
+        this.itemPrices = page.locator(".inventory_item_price");
     }
     
     public boolean isCartItemDisplayed() {
-        return page.isVisible(cartItem);
+        return cartItems.first().isVisible();
     }
     
     public int getCartItemCount() {
-        return page.locator(cartItem).count();
+        return cartItems.count();
     }
     
     public void proceedToCheckout() {
-        page.click(checkoutButton);
+        checkoutButton.click();
     }
     
     public void continueShopping() {
-        page.click(continueShoppingButton);
+        continueShoppingButton.click();
     }
     
     public void removeItem(int index) {
-        page.locator(removeButton).nth(index).click();
+        removeButtons.nth(index).click();
     }
     
     public String getItemName(int index) {
-        return page.locator(itemName).nth(index).textContent();
+        return itemNames.nth(index).textContent();
     }
     
     public String getItemPrice(int index) {
-        return page.locator(itemPrice).nth(index).textContent();
+        return itemPrices.nth(index).textContent();
     }
     
     public boolean isCheckoutButtonVisible() {
-        return page.isVisible(checkoutButton);
+        return checkoutButton.isVisible();
     }
 }
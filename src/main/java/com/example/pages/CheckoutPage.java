@@ -1,88 +1,147 @@
 package com.example.pages;
 
+import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class CheckoutPage {
     private final Page page;
     
     // Locators - Step One
-    private final String firstNameInput = "#first-name";
-    private final String lastNameInput = "#last-name";
-    private final String postalCodeInput = "#postal-code";
-    private final String continueButton = "#continue";
-    private final String cancelButton = "#cancel";
+    private final Locator firstNameInput;
+    private final Locator lastNameInput;
+    private final Locator postalCodeInput;
+    private final Locator continueButton;
+    private final Locator cancelButton;
     
     // Locators - Step Two (Overview)
-    private final String summaryInfo = ".summary_info";
-    private final String finishButton = "#finish";
+    private final Locator summaryInfo;
+    private final Locator finishButton;
+    private final Locator paymentInformation;
+    private final Locator shippingInformation;
+    private final Locator subtotal;
+    private final Locator tax;
+    private final Locator total;
     
     // Locators - Complete
-    private final String completeHeader = ".complete-header";
-    private final String completeText = ".complete-text";
-    private final String backHomeButton = "#back-to-products";
+    private final Locator completeHeader;
+    private final Locator completeText;
+    private final Locator backHomeButton;
     
     public CheckoutPage(Page page) {
         this.page = page;
+        this.firstNameInput = page.locator("#first-name");
+        this.lastNameInput = page.locator("#last-name");
+        this.postalCodeInput = page.locator("#postal-code");
+        this.continueButton = page.locator("#continue");
+        this.cancelButton = page.locator("#cancel");
+        this.summaryInfo = page.locator(".summary_info");
+        this.finishButton = page.locator("#finish");
+        this.paymentInformation = page.locator(".summary_value_label:has-text('SauceCard')");
+        this.shippingInformation = page.locator(".summary_value_label:has-text('Pony Express')");
+        this.subtotal = page.locator(".summary_subtotal_label");
+        this.tax = page.locator(".summary_tax_label");
+        this.total = page.locator(".summary_total_label");
+        this.completeHeader = page.locator(".complete-header");
+        this.completeText = page.locator(".complete-text");
+        this.backHomeButton = page.locator("#back-to-products");
     }
     
     // Step One methods
     public void fillCheckoutInformation(String firstName, String lastName, String postalCode) {
-        page.fill(firstNameInput, firstName);
-        page.fill(lastNameInput, lastName);
-        page.fill(postalCodeInput, postalCode);
+        firstNameInput.fill(firstName);
+        lastNameInput.fill(lastName);
+        postalCodeInput.fill(postalCode);
     }
     
     public void clickContinue() {
-        page.click(continueButton);
+        continueButton.click();
     }
     
     public void clickCancel() {
-        page.click(cancelButton);
+        cancelButton.click();
     }
     
     // Step Two methods
     public boolean isSummaryInfoDisplayed() {
-        return page.isVisible(summaryInfo);
+        return summaryInfo.isVisible();
     }
     
     public void clickFinish() {
-        page.click(finishButton);
+        finishButton.click();
     }
     
     public String getPaymentInformation() {
-        return page.textContent(".summary_value_label:has-text('SauceCard')");
+        return paymentInformation.textContent();
     }
     
     public String getShippingInformation() {
-        return page.textContent(".summary_value_label:has-text('Pony Express')");
+        return shippingInformation.textContent();
     }
     
     public String getSubtotal() {
-        return page.textContent(".summary_subtotal_label");
+        return subtotal.textContent();
     }
     
     public String getTax() {
-        return page.textContent(".summary_tax_label");
+        return tax.textContent();
     }
     
     public String getTotal() {
-        return page.textContent(".summary_total_label");
+        return total.textContent();
+    }
+    
+    /**
+     * Payment, shipping, subtotal, tax and total of the overview, read in one call
+     */
+    public Map<String, String> readSummary() {
+        Map<String, String> css = new LinkedHashMap<>();
+        css.put("values", ".summary_value_label");
+        css.put("subtotal", ".summary_subtotal_label");
+        css.put("tax", ".summary_tax_label");
+        css.put("total", ".summary_total_label");
+        Map<String, List<String>> texts = PageQueries.readAllTexts(summaryInfo, css);
+        
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("payment", firstContaining(texts.get("values"), "SauceCard"));
+        summary.put("shipping", firstContaining(texts.get("values"), "Pony Express"));
+        for (String key : List.of("subtotal", "tax", "total")) {
+            summary.put(key, texts.get(key).isEmpty() ? null : texts.get(key).get(0));
+        }
+        return summary;
     }
     
     // Complete methods
     public boolean isOrderComplete() {
-        return page.isVisible(completeHeader);
+        return completeHeader.isVisible();
     }
     
     public String getCompleteHeader() {
-        return page.textContent(completeHeader);
+        return completeHeader.textContent();
     }
     
     public String getCompleteText() {
-        return page.textContent(completeText);
+        return completeText.textContent();
+    }
+    
+    /**
+     * Header and text of the order confirmation, read in one call
+     */
+    public Map<String, String> readConfirmation() {
+        Map<String, String> css = new LinkedHashMap<>();
+        css.put("header", ".complete-header");
+        css.put("text", ".complete-text");
+        return PageQueries.readTexts(completeHeader, css);
     }
     
     public void backToHome() {
-        page.click(backHomeButton);
+        backHomeButton.click();
+    }
+    
+    private static String firstContaining(List<String> texts, String fragment) {
+        return texts.stream().filter(text -> text.contains(fragment)).findFirst().orElse(null);
     }
 }
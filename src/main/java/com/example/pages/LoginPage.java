@@ -1,18 +1,25 @@
 package com.example.pages;
 
+import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 
 public class LoginPage {
     private final Page page;
     
-    // Locators
-    private final String usernameInput = "#user-name";
-    private final String passwordInput = "#password";
-    private final String loginButton = "#login-button";
-    private final String errorMessage = "[data-test='error']";
+    // Locators (built once per page instance, resolved lazily on each action)
+    private final Locator usernameInput;
+    private final Locator passwordInput;
+    private final Locator loginButton;
+    private final Locator errorMessage;
+    private final Locator loginForm;
     
     public LoginPage(Page page) {
         this.page = page;
+        this.usernameInput = page.locator("#user-name");
+        this.passwordInput = page.locator("#password");
+        this.loginButton = page.locator("#login-button");
+        this.errorMessage = page.locator("[data-test='error']");
+        this.loginForm = page.locator(".login-box");
     }
     
     public void navigate() {
@@ -20,32 +27,36 @@ public class LoginPage {
     }
     
     public void login(String username, String password) {
-        page.fill(usernameInput, username);
-        page.fill(passwordInput, password);
-        page.click(loginButton);
+        usernameInput.fill(username);
+        passwordInput.fill(password);
+        loginButton.click();
     }
     
     public void enterUsername(String username) {
-        page.fill(usernameInput, username);
+        usernameInput.fill(username);
     }
     
     public void enterPassword(String password) {
-        page.fill(passwordInput, password);
+        passwordInput.fill(password);
     }
     
     public void clickLogin() {
-        page.click(loginButton);
+        loginButton.click();
     }
     
     public boolean isErrorMessageDisplayed() {
-        return page.isVisible(errorMessage);
+        return errorMessage.isVisible();
     }
     
     public String getErrorMessage() {
-        return page.textContent(errorMessage);
+        return errorMessage.textContent();
     }
     
     public boolean isLoginButtonVisible() {
-        return page.isVisible(loginButton);
+        return loginButton.isVisible();
+    }
+    
+    public void checkAppearance() {
+        VisualCheck.element("login-form", loginForm);
     }
 }
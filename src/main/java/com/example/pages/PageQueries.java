@@ -0,0 +1,53 @@
+package com.example.pages;
+
+import com.microsoft.playwright.Locator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Composite queries for page objects, each a single driver call
+ * Reading a value behind a visibility check, or reading several labels one by
+ * one, costs one round trip per step. These primitives fold the steps into
+ * one call.
+ */
+public final class PageQueries {
+
+    private PageQueries() {
+    }
+
+    /**
+     * Text of the first visible match, or the default when nothing is visible; does not wait
+     */
+    public static String textOrDefault(Locator locator, String defaultText) {
+        Object text = locator.evaluateAll(
+                "(elements, defaultText) => {"
+                        + "  const visible = elements.find(e => e.getClientRects().length > 0"
+                        + "      && getComputedStyle(e).visibility !== 'hidden');"
+                        + "  return visible ? visible.textContent : defaultText;"
+                        + "}", defaultText);
+        return text != null ? text.toString() : defaultText;
+    }
+
+    /**
+     * Texts of every match of each CSS selector, read in one call once the anchor is attached
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, List<String>> readAllTexts(Locator anchor, Map<String, String> cssByKey) {
+        Object texts = anchor.first().evaluate(
+                "(anchor, selectors) => Object.fromEntries(Object.entries(selectors).map(([key, css]) =>"
+                        + "  [key, Array.from(anchor.ownerDocument.querySelectorAll(css), e => e.textContent)]))",
+                cssByKey);
+        return new LinkedHashMap<>((Map<String, List<String>>) texts);
+    }
+
+    /**
+     * First text for each key of readAllTexts, or null when a selector matched nothing
+     */
+    public static Map<String, String> readTexts(Locator anchor, Map<String, String> cssByKey) {
+        Map<String, String> first = new LinkedHashMap<>();
+        readAllTexts(anchor, cssByKey).forEach((key, texts) -> first.put(key, texts.isEmpty() ? null : texts.get(0)));
+        return first;
+    }
+}
@@ -1,73 +1,85 @@
 package com.example.pages;
 
+import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
-import com.microsoft.playwright.options.WaitForSelectorState;
 
 public class ProductsPage {
     private final Page page;
     
-    // Locators
-    private final String inventoryList = ".inventory_list";
-    private final String cartBadge = ".shopping_cart_badge";
-    private final String cartLink = ".shopping_cart_link";
-    private final String pageTitle = ".title";
-    private final String sortContainer = ".product_sort_container";
-    private final String menuButton = "#react-burger-menu-btn";
-    private final String logoutLink = "#logout_sidebar_link";
-    private final String inventoryItemPrice = ".inventory_item_price";
+    // Locators (built once per page instance, resolved lazily on each action)
+    private final Locator inventoryList;
+    private final Locator cartBadge;
+    private final Locator cartLink;
+    private final Locator pageTitle;
+    private final Locator sortContainer;
+    private final Locator menuButton;
+    private final Locator logoutLink;
+    private final Locator inventoryItemPrices;
+    private final Locator inventoryItems;
+    private final Locator inventoryButtons;
     
     public ProductsPage(Page page) {
         this.page = page;
+        this.inventoryList = page.locator(".inventory_list");
+        this.cartBadge = page.locator(".shopping_cart_badge");
+        this.cartLink = page.locator(".shopping_cart_link");
+        this.pageTitle = page.locator(".title");
+        this.sortContainer = page.locator(".product_sort_container");
+        this.menuButton = page.locator("#react-burger-menu-btn");
+        this.logoutLink = page.locator("#logout_sidebar_link");
+        this.inventoryItemPrices = page.locator(".inventory_item_price");
+        this.inventoryItems = page.locator(".inventory_item");
+        this.inventoryButtons = page.locator(".btn_inventory");
     }
     
     public boolean isDisplayed() {
-        return page.isVisible(inventoryList);
+        return inventoryList.isVisible();
     }
     
     public String getPageTitle() {
-        return page.textContent(pageTitle);
+        return pageTitle.textContent();
     }
     
     public void addProductToCart(String productName) {
         String productId = productName.toLowerCase().replace(" ", "-");
-        page.click("#add-to-cart-" + productId);
+        page.locator("#add-to-cart-" + productId).click();
     }
     
     public void addProductByIndex(int index) {
-        page.locator(".btn_inventory").nth(index).click();
+        inventoryButtons.nth(index).click();
     }
     
     public String getCartItemCount() {
-        if (page.isVisible(cartBadge)) {
-            return page.textContent(cartBadge);
-        }
-        return "0";
+        return PageQueries.textOrDefault(cartBadge, "0");
     }
     
     public void goToCart() {
-        page.click(cartLink);
+        cartLink.click();
     }
     
     public void sortProducts(String sortOption) {
-        page.selectOption(sortContainer, sortOption);
+        sortContainer.selectOption(sortOption);
     }
     
     public void openMenu() {
-        page.click(menuButton);
+        menuButton.click();
     }
     
     public void logout() {
         openMenu();
-        page.waitForSelector(logoutLink, new Page.WaitForSelectorOptions()
-                .setState(WaitForSelectorState.VISIBLE));
-        page.click(logoutLink);
+        // click waits for the link to be visible, stable and enabled
+        logoutLink.click();
     }
     
     public String getFirstProductPrice() {
-        return page.textContent(inventoryItemPrice);
+        return inventoryItemPrices.first().textContent();
     }
     
     public int getProductCount() {
-        return page.locator(".inventory_item").count();
+        return inventoryItems.count();
+    }
+    
+    public void checkAppearance() {
+        VisualCheck.element("products-inventory", inventoryList);
     }
 }
@@ -0,0 +1,62 @@
+package com.example.pages;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.ScreenshotAnimations;
+import com.microsoft.playwright.options.ScreenshotCaret;
+
+/**
+ * Visual checks for page objects
+ * A page object names a region and captures it; the comparison is done by the
+ * engine the test installed for the current thread. Without an engine nothing
+ * is captured, so the checks cost nothing when visual regression is off.
+ */
+public final class VisualCheck {
+
+    /**
+     * Compares a captured PNG with the baseline of the same name
+     */
+    public interface Engine {
+        void compare(String name, byte[] png);
+    }
+
+    private static final ThreadLocal<Engine> engine = new ThreadLocal<>();
+
+    private VisualCheck() {
+    }
+
+    /**
+     * Installs the engine for checks made on this thread, null removes it
+     */
+    public static void install(Engine checks) {
+        if (checks == null) {
+            engine.remove();
+        } else {
+            engine.set(checks);
+        }
+    }
+
+    /**
+     * Checks the element's bounding box; animations are finished and the caret hidden first
+     */
+    public static void element(String name, Locator locator) {
+        Engine checks = engine.get();
+        if (checks != null) {
+            checks.compare(name, locator.screenshot(new Locator.ScreenshotOptions()
+                    .setAnimations(ScreenshotAnimations.DISABLED)
+                    .setCaret(ScreenshotCaret.HIDE)));
+        }
+    }
+
+    /**
+     * Checks what is visible in the viewport
+     */
+    public static void viewport(String name, Page page) {
+        Engine checks = engine.get();
+        if (checks != null) {
+            checks.compare(name, page.screenshot(new Page.ScreenshotOptions()
+                    .setAnimations(ScreenshotAnimations.DISABLED)
+                    .setCaret(ScreenshotCaret.HIDE)));
+        }
+    }
+}
@@ -1,7 +1,21 @@
 package com.example.base;
 
+import com.example.checkpoint.Checkpoint;
+import com.example.checkpoint.CheckpointStore;
 import com.example.config.TestConfig;
+import com.example.daemon.WarmBrowser;
+import com.example.diagnostics.ContextDiagnostics;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
 import com.example.factory.PageFactory;
+import com.example.instrumentation.PageInstrumentation;
+import com.example.launch.BrowserPrelaunch;
+import com.example.launch.DriverCache;
+import com.example.metrics.BrowserResources;
+import com.example.network.HarNetwork;
+import com.example.performance.Throttling;
+import com.example.visual.VisualRegression;
 import com.microsoft.playwright.*;
 import org.junit.jupiter.api.*;
 
@@ -11,13 +25,25 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Optional;
 
 public class BaseTest {
     
     protected static Playwright playwright;
     protected static Browser browser;
+    protected static BrowserServer browserServer;
+    private static SharedContext sharedContext;
     protected BrowserContext context;
     protected Page page;
+    private BrowserServer.ContextSlot contextSlot;
+    private HarNetwork harNetwork;
+    private PageInstrumentation pageInstrumentation;
+    private BrowserResources browserResources;
+    private VisualRegression visualRegression;
+    // Kept after the test so failure extensions can write it out
+    private ContextDiagnostics diagnostics;
+    private String testName;
+    private boolean readOnly;
     
     // Option 1: PageManager for simple lazy initialization
     protected PageManager pageManager;
@@ -27,27 +53,32 @@ public class BaseTest {
     
     @BeforeAll
     static void launchBrowser() {
-        playwright = Playwright.create();
-        
-        // Select browser based on configuration
-        BrowserType browserType;
-        switch (TestConfig.BROWSER.toLowerCase()) {
-            case "firefox":
-                browserType = playwright.firefox();
-                break;
-            case "webkit":
-                browserType = playwright.webkit();
-                break;
-            case "chromium":
-            default:
-                browserType = playwright.chromium();
-                break;
+        if (WarmBrowser.isAvailable()) {
+            // Running inside the test daemon, reuse its warm browser
+            playwright = WarmBrowser.playwright();
+            browser = WarmBrowser.browser();
+        } else {
+            // Take what was started during test discovery, or start it now
+            BrowserPrelaunch.Prelaunched prelaunched = BrowserPrelaunch.take();
+            if (prelaunched != null) {
+                playwright = prelaunched.getPlaywright();
+            } else {
+                DriverCache.install();
+                playwright = Playwright.create();
+            }
+            BrowserType browserType = selectBrowserType(playwright);
+            
+            // Connect to the shared browser server, or launch a browser for this fork
+            if (TestConfig.BROWSER_SERVER) {
+                browserServer = new BrowserServer(browserType);
+                browser = browserServer.browser();
+            } else if (prelaunched != null && prelaunched.getBrowser() != null) {
+                browser = prelaunched.getBrowser();
+            } else {
+                browser = browserType.launch(launchOptions());
+            }
         }
         
-        browser = browserType.launch(new BrowserType.LaunchOptions()
-                .setHeadless(TestConfig.HEADLESS)
-                .setSlowMo(TestConfig.SLOW_MO));
-        
         // Create screenshot directory
         createDirectory(TestConfig.SCREENSHOT_DIR);
         
@@ -64,7 +95,19 @@ public class BaseTest {
 
     @AfterAll
     static void closeBrowser() {
-        if (browser != null) {
+        boolean warm = WarmBrowser.isAvailable() && browser == WarmBrowser.browser();
+        if (sharedContext != null && !(warm && WarmBrowser.keepsSharedContext())) {
+            sharedContext.close();
+            sharedContext = null;
+        }
+        if (warm) {
+            // The daemon or dispatch worker owns the warm browser and keeps it for the next tests
+            return;
+        }
+        if (browserServer != null) {
+            browserServer.disconnect();
+            browserServer = null;
+        } else if (browser != null) {
             browser.close();
         }
         if (playwright != null) {
@@ -72,8 +115,37 @@ public class BaseTest {
         }
     }
 
+    // Select browser based on configuration
+    public static BrowserType selectBrowserType(Playwright playwright) {
+        switch (TestConfig.BROWSER.toLowerCase()) {
+            case "firefox":
+                return playwright.firefox();
+            case "webkit":
+                return playwright.webkit();
+            case "chromium":
+            default:
+                return playwright.chromium();
+        }
+    }
+    
+    public static BrowserType.LaunchOptions launchOptions() {
+        return new BrowserType.LaunchOptions()
+                .setHeadless(TestConfig.HEADLESS)
+                .setSlowMo(TestConfig.SLOW_MO);
+    }
+
     @BeforeEach
     void createContextAndPage(TestInfo testInfo) {
+        testName = testInfo.getDisplayName();
+        visualRegression = VisualRegression.start(testName);
+        
+        // Read-only tests open a tab in the shared logged-in context
+        readOnly = SharedContext.appliesTo(testInfo);
+        if (readOnly) {
+            openSharedPage(testInfo);
+            return;
+        }
+        
         Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
                 .setViewportSize(TestConfig.VIEWPORT_WIDTH, TestConfig.VIEWPORT_HEIGHT);
         
@@ -85,8 +157,25 @@ public class BaseTest {
                     .setRecordVideoSize(TestConfig.VIEWPORT_WIDTH, TestConfig.VIEWPORT_HEIGHT);
         }
         
+        // Record this test's traffic to a HAR archive if configured
+        harNetwork = new HarNetwork(testInfo);
+        harNetwork.configureContext(contextOptions);
+        
+        // Restore the saved checkpoint the test starts from, if there is a valid one
+        Checkpoint startFrom = SharedContext.startingCheckpoint(testInfo);
+        Optional<CheckpointStore.Snapshot> snapshot = startFrom != null
+                ? CheckpointStore.load(startFrom)
+                : Optional.empty();
+        snapshot.ifPresent(saved -> contextOptions.setStorageState(saved.getStorageState()));
+        
         // Create new context for this test
+        if (browserServer != null) {
+            // Reconnect if the server crashed and wait for a free context slot
+            browser = browserServer.browser();
+            contextSlot = browserServer.acquireContextSlot();
+        }
         synchronized (browser) {
+            browserResources = BrowserResources.start(browser);
             context = browser.newContext(contextOptions);
         }
         
@@ -94,7 +183,18 @@ public class BaseTest {
         context.setDefaultTimeout(TestConfig.DEFAULT_TIMEOUT);
         context.setDefaultNavigationTimeout(TestConfig.NAVIGATION_TIMEOUT);
         
-        page = context.newPage();
+        // Serve every request from the HAR archive in replay mode
+        harNetwork.attach(context);
+        
+        // Keep the last console messages, page errors and responses for a failure
+        diagnostics = ContextDiagnostics.attach(context, testName);
+        
+        // Emulate the configured CPU and network profile on every page before it navigates
+        Throttling.applyToPages(context);
+        
+        // Instrument the page when recording test impact
+        pageInstrumentation = new PageInstrumentation(testInfo);
+        page = pageInstrumentation.instrument(context.newPage());
         
         // Initialize page management utilities
         pageManager = new PageManager(page);
@@ -108,14 +208,79 @@ public class BaseTest {
                         .setSnapshots(true)
                         .setSources(true));
             } catch (Exception e) {
-                System.err.println("Failed to start tracing: " + e.getMessage());
+                EventLog.error("Failed to start tracing: " + e.getMessage());
+            }
+        }
+        
+        // Go to the checkpoint, or walk the journey to it and save it for the next tests
+        if (startFrom != null) {
+            if (snapshot.isPresent()) {
+                page.navigate(snapshot.get().getUrl());
+            } else {
+                CheckpointStore.build(startFrom, pageFactory, context, page);
             }
         }
     }
 
+    private void openSharedPage(TestInfo testInfo) {
+        if (browserServer != null) {
+            // Reconnect if the server crashed
+            browser = browserServer.browser();
+        }
+        if (sharedContext != null && sharedContext.getContext().browser() != browser) {
+            // The browser was reconnected or relaunched since, the shared context went with the old one
+            sharedContext.close();
+            sharedContext = null;
+        }
+        if (sharedContext == null) {
+            sharedContext = SharedContext.open(browser, browserServer);
+        }
+        harNetwork = null;
+        context = sharedContext.getContext();
+        browserResources = BrowserResources.start(browser);
+        diagnostics = ContextDiagnostics.attach(context, testName);
+        
+        pageInstrumentation = new PageInstrumentation(testInfo);
+        page = pageInstrumentation.instrument(context.newPage());
+        pageManager = new PageManager(page);
+        pageFactory = new PageFactory(page);
+        page.navigate(sharedContext.getUrl());
+    }
+
+    /**
+     * Closes the test's tab and fails the test if it changed the shared state
+     */
+    private AssertionError closeSharedPage() {
+        try {
+            page.close();
+        } catch (Exception e) {
+            EventLog.error("Failed to close page: " + e.getMessage());
+        }
+        String changed;
+        try {
+            changed = sharedContext.changedState();
+        } catch (Exception e) {
+            EventLog.error("Failed to read shared context state, replacing it: " + e.getMessage());
+            changed = null;
+            sharedContext.close();
+            sharedContext = null;
+        }
+        if (changed == null) {
+            return null;
+        }
+        // Replace the context so the next read-only test starts from the baseline again
+        sharedContext.close();
+        sharedContext = null;
+        return new AssertionError("Test is marked @ReadOnly but changed the shared context: " + changed);
+    }
+
     @AfterEach
     void closeContext(TestInfo testInfo) {
         try {
+            if (pageInstrumentation != null) {
+                pageInstrumentation.finish();
+            }
+            
             // Take screenshot on success if configured
             // Note: Screenshot on failure is handled by the ScreenshotExtension
             if (TestConfig.SCREENSHOT_ON_SUCCESS && page != null && !page.isClosed()) {
@@ -128,21 +293,58 @@ public class BaseTest {
                     String tracePath = TestConfig.TRACE_DIR + "/" + sanitizeFileName(testInfo.getDisplayName()) + "_" + getTimestamp() + ".zip";
                     context.tracing().stop(new Tracing.StopOptions()
                             .setPath(Paths.get(tracePath)));
+                    EventLog.publish(new Event(EventType.ARTIFACT, testInfo.getDisplayName(), "Trace saved: " + tracePath)
+                            .with("kind", "trace")
+                            .with("path", tracePath));
                 } catch (Exception e) {
-                    System.err.println("Failed to stop tracing: " + e.getMessage());
+                    EventLog.error("Failed to stop tracing: " + e.getMessage());
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error in cleanup: " + e.getMessage());
+            EventLog.error("Error in cleanup: " + e.getMessage());
         } finally {
             // Close context
-            if (context != null) {
+            int pagesAtClose = 0;
+            AssertionError sharedStateChanged = null;
+            if (diagnostics != null) {
+                diagnostics.detach();
+            }
+            if (browserResources != null) {
+                browserResources.beforeClose();
+            }
+            if (readOnly && page != null) {
+                pagesAtClose = context.pages().size();
+                sharedStateChanged = closeSharedPage();
+            } else if (context != null) {
                 try {
+                    pagesAtClose = context.pages().size();
                     context.close();
                 } catch (Exception e) {
-                    System.err.println("Failed to close context: " + e.getMessage());
+                    EventLog.error("Failed to close context: " + e.getMessage());
                 }
             }
+            if (harNetwork != null) {
+                harNetwork.reportMissing();
+            }
+            if (contextSlot != null) {
+                contextSlot.close();
+                contextSlot = null;
+            }
+            if (browserResources != null) {
+                browserResources.finish(getClass().getName(), testInfo.getDisplayName(), pagesAtClose);
+                browserResources = null;
+            }
+            AssertionError visualDifferences = null;
+            if (visualRegression != null) {
+                visualDifferences = visualRegression.finish();
+                visualRegression = null;
+            }
+            if (sharedStateChanged != null) {
+                throw sharedStateChanged;
+            }
+            if (visualDifferences != null) {
+                throw visualDifferences;
+            }
         }
     }
     
@@ -163,9 +365,11 @@ public class BaseTest {
                     .setPath(screenshotPath)
                     .setFullPage(true));
             
-            System.out.println("Screenshot saved: " + screenshotPath);
+            EventLog.publish(new Event(EventType.ARTIFACT, testName, "Screenshot saved: " + screenshotPath)
+                    .with("kind", "screenshot")
+                    .with("path", screenshotPath.toString()));
         } catch (Exception e) {
-            System.err.println("Failed to take screenshot: " + e.getMessage());
+            EventLog.error("Failed to take screenshot: " + e.getMessage());
         }
     }
     
@@ -181,9 +385,11 @@ public class BaseTest {
                     .setPath(screenshotPath)
                     .setFullPage(fullPage));
             
-            System.out.println("Screenshot saved: " + screenshotPath);
+            EventLog.publish(new Event(EventType.ARTIFACT, testName, "Screenshot saved: " + screenshotPath)
+                    .with("kind", "screenshot")
+                    .with("path", screenshotPath.toString()));
         } catch (Exception e) {
-            System.err.println("Failed to take screenshot: " + e.getMessage());
+            EventLog.error("Failed to take screenshot: " + e.getMessage());
         }
     }
     
@@ -195,7 +401,7 @@ public class BaseTest {
                 Files.createDirectories(path);
             }
         } catch (IOException e) {
-            System.err.println("Failed to create directory: " + dirPath + " - " + e.getMessage());
+            EventLog.error("Failed to create directory: " + dirPath + " - " + e.getMessage());
         }
     }
     
@@ -0,0 +1,360 @@
+package com.example.base;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.launch.DriverCache;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.impl.driver.Driver;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Shared out-of-process browser server
+ * One browser server (or a small pool of them) runs per machine and every
+ * surefire fork connects to it over a local websocket instead of launching
+ * its own browser. The first fork that needs a server starts it, every fork
+ * holds a lease until it exits and the last one to leave stops it.
+ *
+ * Machine-wide coordination uses files under browser.server.dir:
+ *   server-N.lock / server-N.pid  - start/stop guard and process id of server N
+ *   server-N.leases/<pid>         - one lease per connected fork
+ *   server-N.slot-K.lock          - one lock per concurrent context on server N
+ *
+ * Closing any channel of a file drops every lock the JVM holds on it, so each
+ * slot file is opened once per JVM and kept open, and slots held by this JVM
+ * are tracked in memory instead of probed with another tryLock.
+ */
+public class BrowserServer {
+
+    private static final int CONNECT_ATTEMPTS = 3;
+    private static final long SERVER_START_TIMEOUT_MS = 30000;
+    private static final long SLOT_POLL_INTERVAL_MS = 100;
+    // Slot file -> its only channel in this JVM; guards heldSlots too
+    private static final Map<Path, FileChannel> slotChannels = new HashMap<>();
+    private static final Set<Path> heldSlots = new HashSet<>();
+
+    private final BrowserType browserType;
+    private final int index;
+    private final int port;
+    private final Path dir;
+    private Browser browser;
+
+    public BrowserServer(BrowserType browserType) {
+        this.browserType = browserType;
+        // Spread forks over the pool by process id
+        this.index = (int) (ProcessHandle.current().pid() % TestConfig.BROWSER_SERVER_COUNT);
+        this.port = TestConfig.BROWSER_SERVER_PORT + index;
+        this.dir = Paths.get(TestConfig.BROWSER_SERVER_DIR);
+    }
+
+    /**
+     * Returns a connected browser, starting the server or reconnecting after a crash if needed
+     */
+    public synchronized Browser browser() {
+        if (browser != null && browser.isConnected()) {
+            return browser;
+        }
+        browser = null;
+        PlaywrightException lastError = null;
+        for (int attempt = 1; attempt <= CONNECT_ATTEMPTS; attempt++) {
+            try {
+                ensureServerRunning();
+                browser = browserType.connect(wsEndpoint());
+                EventLog.info("Connected to browser server " + wsEndpoint());
+                return browser;
+            } catch (PlaywrightException e) {
+                lastError = e;
+                EventLog.error("Failed to connect to browser server " + wsEndpoint()
+                        + " (attempt " + attempt + " of " + CONNECT_ATTEMPTS + "): " + e.getMessage());
+            }
+        }
+        throw new PlaywrightException("Browser server " + wsEndpoint() + " is not available", lastError);
+    }
+
+    /**
+     * Blocks until one of the per-server context slots is free.
+     * Slots are file locks, so the limit holds across all forks on the machine.
+     */
+    public ContextSlot acquireContextSlot() {
+        long deadline = System.currentTimeMillis() + TestConfig.DEFAULT_TIMEOUT;
+        while (true) {
+            for (int slot = 0; slot < TestConfig.BROWSER_SERVER_MAX_CONTEXTS; slot++) {
+                Optional<ContextSlot> acquired = tryLockSlot(slot);
+                if (acquired.isPresent()) {
+                    return acquired.get();
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new PlaywrightException("Timed out waiting for a free context slot on " + wsEndpoint());
+            }
+            sleep(SLOT_POLL_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Disconnects from the server, which keeps running for the other test classes and forks
+     */
+    public synchronized void disconnect() {
+        if (browser != null) {
+            try {
+                browser.close();
+            } catch (Exception e) {
+                EventLog.error("Failed to disconnect from browser server: " + e.getMessage());
+            }
+            browser = null;
+        }
+    }
+
+    /**
+     * Drops this fork's lease and stops the server when no other fork holds one.
+     * Runs from a shutdown hook so the server outlives individual test classes.
+     */
+    private void releaseLease() {
+        try (FileLock ignored = lockServer()) {
+            Files.deleteIfExists(leaseDir().resolve(String.valueOf(ProcessHandle.current().pid())));
+            if (activeLeases() == 0) {
+                stopServer();
+            }
+        } catch (IOException e) {
+            EventLog.error("Failed to release browser server lease: " + e.getMessage());
+        }
+    }
+
+    public String wsEndpoint() {
+        return "ws://127.0.0.1:" + port + "/" + browserType.name() + "-" + index;
+    }
+
+    private void ensureServerRunning() {
+        try (FileLock ignored = lockServer()) {
+            // Take the lease under the lock so a leaving fork cannot stop the server under us
+            registerLease();
+            if (!isHealthy()) {
+                stopServer();
+                startServer();
+            }
+        } catch (IOException e) {
+            throw new PlaywrightException("Failed to start browser server: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isHealthy() {
+        return serverProcess().map(ProcessHandle::isAlive).orElse(false) && isPortOpen();
+    }
+
+    private boolean isPortOpen() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 1000);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void startServer() throws IOException {
+        Path config = dir.resolve("server-" + index + ".json");
+        Files.write(config, ("{\"headless\": " + TestConfig.HEADLESS
+                + ", \"slowMo\": " + TestConfig.SLOW_MO
+                + ", \"port\": " + port
+                + ", \"wsPath\": \"/" + browserType.name() + "-" + index + "\"}").getBytes(StandardCharsets.UTF_8));
+
+        // The Java API has no launchServer, so run the driver's launch-server command directly
+        DriverCache.install();
+        ProcessBuilder builder = Driver.ensureDriverInstalled(Collections.emptyMap(), false).createProcessBuilder();
+        builder.command().add("launch-server");
+        builder.command().add("--browser");
+        builder.command().add(browserType.name());
+        builder.command().add("--config");
+        builder.command().add(config.toAbsolutePath().toString());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(dir.resolve("server-" + index + ".log").toFile());
+        Process process = builder.start();
+        Files.write(pidFile(), String.valueOf(process.pid()).getBytes(StandardCharsets.UTF_8));
+
+        long deadline = System.currentTimeMillis() + SERVER_START_TIMEOUT_MS;
+        while (!isPortOpen()) {
+            if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+                process.destroyForcibly();
+                throw new PlaywrightException("Browser server did not start on port " + port
+                        + ", see " + dir.resolve("server-" + index + ".log"));
+            }
+            sleep(SLOT_POLL_INTERVAL_MS);
+        }
+        EventLog.info("Started browser server " + wsEndpoint() + " (pid " + process.pid() + ")");
+    }
+
+    private void stopServer() throws IOException {
+        Optional<ProcessHandle> process = serverProcess();
+        if (process.isPresent() && process.get().isAlive()) {
+            // Stop the whole tree, the driver script forks node which forks the browser
+            process.get().descendants().forEach(ProcessHandle::destroy);
+            process.get().destroy();
+            EventLog.info("Stopped browser server " + wsEndpoint());
+        }
+        Files.deleteIfExists(pidFile());
+    }
+
+    private Optional<ProcessHandle> serverProcess() {
+        try {
+            if (!Files.exists(pidFile())) {
+                return Optional.empty();
+            }
+            String pid = new String(Files.readAllBytes(pidFile()), StandardCharsets.UTF_8).trim();
+            return ProcessHandle.of(Long.parseLong(pid));
+        } catch (IOException | NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void registerLease() throws IOException {
+        Files.createDirectories(leaseDir());
+        Path lease = leaseDir().resolve(String.valueOf(ProcessHandle.current().pid()));
+        if (!Files.exists(lease)) {
+            Files.createFile(lease);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::releaseLease, "browser-server-lease"));
+        }
+    }
+
+    private long activeLeases() throws IOException {
+        if (!Files.isDirectory(leaseDir())) {
+            return 0;
+        }
+        List<Path> leases;
+        try (Stream<Path> files = Files.list(leaseDir())) {
+            leases = files.collect(Collectors.toList());
+        }
+        long active = 0;
+        for (Path lease : leases) {
+            // Leases of forks that died without cleaning up are dropped
+            boolean alive = ProcessHandle.of(Long.parseLong(lease.getFileName().toString()))
+                    .map(ProcessHandle::isAlive).orElse(false);
+            if (alive) {
+                active++;
+            } else {
+                Files.deleteIfExists(lease);
+            }
+        }
+        return active;
+    }
+
+    private FileLock lockServer() throws IOException {
+        Files.createDirectories(dir);
+        FileChannel channel = new RandomAccessFile(dir.resolve("server-" + index + ".lock").toFile(), "rw").getChannel();
+        return new ChannelClosingLock(channel, channel.lock());
+    }
+
+    private Optional<ContextSlot> tryLockSlot(int slot) {
+        Path file = dir.resolve("server-" + index + ".slot-" + slot + ".lock").toAbsolutePath();
+        synchronized (slotChannels) {
+            if (heldSlots.contains(file)) {
+                // Held by another thread of this fork
+                return Optional.empty();
+            }
+            try {
+                FileChannel channel = slotChannels.get(file);
+                if (channel == null) {
+                    Files.createDirectories(dir);
+                    channel = new RandomAccessFile(file.toFile(), "rw").getChannel();
+                    slotChannels.put(file, channel);
+                }
+                FileLock lock = channel.tryLock();
+                if (lock != null) {
+                    heldSlots.add(file);
+                    return Optional.of(new ContextSlot(file, lock));
+                }
+            } catch (IOException e) {
+                EventLog.error("Failed to lock context slot " + slot + ": " + e.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+
+    private Path pidFile() {
+        return dir.resolve("server-" + index + ".pid");
+    }
+
+    private Path leaseDir() {
+        return dir.resolve("server-" + index + ".leases");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PlaywrightException("Interrupted while waiting for browser server", e);
+        }
+    }
+
+    /**
+     * A held context slot, released when the context is closed; the slot file's channel stays open
+     */
+    public static class ContextSlot implements AutoCloseable {
+        private final Path file;
+        private final FileLock lock;
+
+        private ContextSlot(Path file, FileLock lock) {
+            this.file = file;
+            this.lock = lock;
+        }
+
+        @Override
+        public void close() {
+            synchronized (slotChannels) {
+                if (!heldSlots.remove(file)) {
+                    return;
+                }
+                try {
+                    lock.release();
+                } catch (IOException e) {
+                    EventLog.error("Failed to release context slot: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * File lock that also closes its channel on release
+     */
+    private static class ChannelClosingLock extends FileLock {
+        private final FileLock delegate;
+
+        ChannelClosingLock(FileChannel channel, FileLock delegate) {
+            super(channel, delegate.position(), delegate.size(), delegate.isShared());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isValid() {
+            return delegate.isValid();
+        }
+
+        @Override
+        public void release() throws IOException {
+            try {
+                delegate.release();
+            } finally {
+                channel().close();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.base;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test that only reads inventory state, so it runs in a new tab of the
+ * shared logged-in context instead of a context and login of its own.
+ * The test starts on the inventory page, already logged in.
+ * Usage: @ReadOnly on a test method or a whole test class
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReadOnly {
+}
@@ -0,0 +1,138 @@
+package com.example.base;
+
+import com.example.checkpoint.Checkpoint;
+import com.example.checkpoint.CheckpointStore;
+import com.example.checkpoint.StartFrom;
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.factory.PageFactory;
+import com.example.network.HarNetwork;
+import com.example.performance.Throttling;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import org.junit.jupiter.api.TestInfo;
+
+import java.util.Optional;
+
+/**
+ * One logged-in context that @ReadOnly tests open their tabs in (-Dshared.context=true by default)
+ *
+ * The context is logged in once, from the LOGGED_IN checkpoint, and its
+ * storage state (cookies and local storage, which holds the cart) is kept as a
+ * baseline. After every read-only test the state is compared with the
+ * baseline; a test that changed it fails and the context is replaced, so the
+ * next test never sees the change. Tests that need their own HAR archive,
+ * video or trace, or start from another checkpoint, keep their own context.
+ * With parallel execution every test keeps its own context: BaseTest holds
+ * the shared context in a static field, and a change seen after one test
+ * could have been made by another test running in the same context.
+ */
+public class SharedContext {
+
+    private static final Checkpoint START = Checkpoint.LOGGED_IN;
+
+    private final BrowserContext context;
+    private final BrowserServer.ContextSlot contextSlot;
+    private final String url;
+    private final String baselineState;
+
+    private SharedContext(BrowserContext context, BrowserServer.ContextSlot contextSlot, String url) {
+        this.context = context;
+        this.contextSlot = contextSlot;
+        this.url = url;
+        this.baselineState = context.storageState();
+    }
+
+    /**
+     * Whether the test can run in the shared context
+     */
+    public static boolean appliesTo(TestInfo testInfo) {
+        return isReadOnly(testInfo) && startFrom(testInfo) == null && TestConfig.SHARED_CONTEXT
+                && !TestConfig.PARALLEL_EXECUTION && HarNetwork.MODE == HarNetwork.Mode.LIVE && !TestConfig.RECORD_VIDEO && !TestConfig.ENABLE_TRACE;
+    }
+
+    /**
+     * Checkpoint a test in its own context starts from: its @StartFrom, or LOGGED_IN
+     * for a read-only test, so it starts where it would in the shared context
+     */
+    public static Checkpoint startingCheckpoint(TestInfo testInfo) {
+        StartFrom startFrom = startFrom(testInfo);
+        if (startFrom != null) {
+            return startFrom.value();
+        }
+        return isReadOnly(testInfo) ? START : null;
+    }
+
+    private static boolean isReadOnly(TestInfo testInfo) {
+        return testInfo.getTestMethod().map(method -> method.isAnnotationPresent(ReadOnly.class)).orElse(false)
+                || testInfo.getTestClass().map(testClass -> testClass.isAnnotationPresent(ReadOnly.class)).orElse(false);
+    }
+
+    private static StartFrom startFrom(TestInfo testInfo) {
+        return testInfo.getTestMethod().map(method -> method.getAnnotation(StartFrom.class)).orElse(null);
+    }
+
+    /**
+     * Creates the context and logs it in from the saved checkpoint, or walks the login journey once
+     */
+    public static SharedContext open(Browser browser, BrowserServer browserServer) {
+        BrowserServer.ContextSlot contextSlot = browserServer != null ? browserServer.acquireContextSlot() : null;
+        Optional<CheckpointStore.Snapshot> snapshot = CheckpointStore.load(START);
+        Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
+                .setViewportSize(TestConfig.VIEWPORT_WIDTH, TestConfig.VIEWPORT_HEIGHT);
+        snapshot.ifPresent(saved -> contextOptions.setStorageState(saved.getStorageState()));
+
+        BrowserContext context;
+        synchronized (browser) {
+            context = browser.newContext(contextOptions);
+        }
+        context.setDefaultTimeout(TestConfig.DEFAULT_TIMEOUT);
+        context.setDefaultNavigationTimeout(TestConfig.NAVIGATION_TIMEOUT);
+        // Once per context, the tabs of every read-only test are throttled as they open
+        Throttling.applyToPages(context);
+
+        String url;
+        if (snapshot.isPresent()) {
+            url = snapshot.get().getUrl();
+        } else {
+            Page loginPage = context.newPage();
+            CheckpointStore.build(START, new PageFactory(loginPage), context, loginPage);
+            url = loginPage.url();
+            loginPage.close();
+        }
+        EventLog.info("Shared context logged in for read-only tests");
+        return new SharedContext(context, contextSlot, url);
+    }
+
+    public BrowserContext getContext() {
+        return context;
+    }
+
+    /**
+     * Page the read-only tests start on
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Describes how the storage state differs from the baseline, or null when it is unchanged
+     */
+    public String changedState() {
+        String state = context.storageState();
+        return state.equals(baselineState) ? null : "storage state changed from " + baselineState + " to " + state;
+    }
+
+    public void close() {
+        try {
+            context.close();
+        } catch (Exception e) {
+            EventLog.error("Failed to close shared context: " + e.getMessage());
+        } finally {
+            if (contextSlot != null) {
+                contextSlot.close();
+            }
+        }
+    }
+}
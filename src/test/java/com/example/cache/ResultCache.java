@@ -0,0 +1,92 @@
+package com.example.cache;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local store of passing test keys, one small file per key
+ * Hits refresh the file's modification time and the least recently used
+ * entries are evicted once result.cache.max.entries is exceeded.
+ *
+ * A failure is kept next to the key with the run it failed in (report.run),
+ * so a pass on a retry in the same run, by surefire in the same fork or by
+ * the dispatcher on another worker, is not stored as a pass.
+ */
+public class ResultCache {
+
+    private static final String FAILED_SUFFIX = ".failed";
+    // Outside Maven and the dispatcher, a retry is only seen within this JVM
+    private static final String RUN = TestConfig.REPORT_RUN.isEmpty()
+            ? ProcessHandle.current().pid() + "-" + System.currentTimeMillis()
+            : TestConfig.REPORT_RUN;
+
+    private final Path dir = Paths.get(TestConfig.RESULT_CACHE_DIR);
+
+    public boolean hasPass(String key) {
+        Path entry = dir.resolve(key);
+        if (!Files.exists(entry)) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Still a hit, it may just be evicted a little earlier
+        }
+        return true;
+    }
+
+    public synchronized void recordPass(String key, String testName) {
+        try {
+            Files.createDirectories(dir);
+            Files.write(dir.resolve(key), (testName + "\n" + System.currentTimeMillis() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            evict();
+        } catch (IOException e) {
+            EventLog.error("Failed to store result in cache: " + e.getMessage());
+        }
+    }
+
+    public synchronized void recordFailure(String key) {
+        try {
+            Files.createDirectories(dir);
+            Files.write(dir.resolve(key + FAILED_SUFFIX), (RUN + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            EventLog.error("Failed to store failure in cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the test failed earlier in this run, so a pass now is a retry's
+     */
+    public boolean failedInRun(String key) {
+        Path failure = dir.resolve(key + FAILED_SUFFIX);
+        try {
+            return Files.exists(failure) && Files.readAllLines(failure, StandardCharsets.UTF_8).contains(RUN);
+        } catch (IOException e) {
+            // Unreadable, do not risk caching a flaky pass
+            return true;
+        }
+    }
+
+    private void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(dir)) {
+            entries = files.sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < entries.size() - TestConfig.RESULT_CACHE_MAX_ENTRIES; i++) {
+            Files.deleteIfExists(entries.get(i));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.cache;
+
+import com.example.config.TestConfig;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+import org.junit.platform.commons.annotation.Testable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reports a test from the result cache instead of running it when its key
+ * matches a stored pass (enable with -Dresult.cache=true).
+ * Tests that pass at the first attempt store their key for the next run; a
+ * pass on a retry after a failure in the same run is not stored, or a flaky
+ * test would be skipped as passed from then on. A parameterized test also
+ * stores one key for all of its invocations once every one of them passed.
+ *
+ * A class whose tests all have a stored pass is skipped as a whole, so its
+ * @BeforeAll does not start a browser. JUnit has no "passed without running"
+ * outcome, so cached tests are reported as skipped with the reason
+ * "Passed in result cache".
+ */
+public class ResultCacheExtension implements ExecutionCondition, TestWatcher {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ResultCacheExtension.class);
+    private static final String KEY = "resultCacheKey";
+    private static final String TEMPLATE = "resultCacheTemplate";
+    private static final ResultCache CACHE = new ResultCache();
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (!TestConfig.RESULT_CACHE || context.getTestClass().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Result cache not applicable");
+        }
+        if (context.getTestMethod().isEmpty()) {
+            return evaluateClass(context.getRequiredTestClass());
+        }
+        String uniqueId = context.getUniqueId();
+        String lastSegment = uniqueId.substring(uniqueId.lastIndexOf('/') + 1);
+        if (lastSegment.startsWith("[test-template:")) {
+            return evaluateTemplate(context);
+        }
+        Optional<String> key = TestFingerprint.of(context.getRequiredTestClass(), context.getRequiredTestMethod());
+        if (key.isPresent() && lastSegment.startsWith("[test-template-invocation:")) {
+            // Key the invocation by its arguments, the "[n]" index shifts with data partitions
+            String arguments = context.getDisplayName().replaceFirst("^\\[\\d+\\] ", "");
+            key = Optional.of(TestFingerprint.ofClasses(List.of(), key.get(), arguments));
+        }
+        if (key.isEmpty()) {
+            return ConditionEvaluationResult.enabled("No stable fingerprint for the target site");
+        }
+        if (CACHE.hasPass(key.get())) {
+            templateOutcome(context).ifPresent(TemplateOutcome::passed);
+            return ConditionEvaluationResult.disabled("Passed in result cache (" + key.get().substring(0, 12) + ")");
+        }
+        context.getStore(NAMESPACE).put(KEY, key.get());
+        return ConditionEvaluationResult.enabled("Not in result cache");
+    }
+
+    /**
+     * Skips the class when every one of its tests has a stored pass
+     */
+    private static ConditionEvaluationResult evaluateClass(Class<?> testClass) {
+        List<Method> tests = AnnotationSupport.findAnnotatedMethods(testClass, Testable.class, HierarchyTraversalMode.TOP_DOWN);
+        if (tests.isEmpty()) {
+            return ConditionEvaluationResult.enabled("No tests to look up in the result cache");
+        }
+        for (Method test : tests) {
+            if (AnnotationSupport.isAnnotated(test, Disabled.class)) {
+                continue;
+            }
+            Optional<String> key = AnnotationSupport.isAnnotated(test, TestTemplate.class)
+                    ? TestFingerprint.ofTemplate(testClass, test)
+                    : TestFingerprint.of(testClass, test);
+            if (key.isEmpty() || !CACHE.hasPass(key.get())) {
+                return ConditionEvaluationResult.enabled("Not every test is in the result cache");
+            }
+        }
+        return ConditionEvaluationResult.disabled("All tests passed in result cache");
+    }
+
+    /**
+     * Skips a parameterized test whose invocations all passed, or tracks them to store that they did
+     */
+    private static ConditionEvaluationResult evaluateTemplate(ExtensionContext context) {
+        Optional<String> key = TestFingerprint.ofTemplate(context.getRequiredTestClass(), context.getRequiredTestMethod());
+        if (key.isEmpty()) {
+            return ConditionEvaluationResult.enabled("No stable fingerprint for the target site");
+        }
+        if (CACHE.hasPass(key.get())) {
+            return ConditionEvaluationResult.disabled("Passed in result cache (" + key.get().substring(0, 12) + ")");
+        }
+        context.getStore(NAMESPACE).put(TEMPLATE, new TemplateOutcome(key.get(), context.getDisplayName()));
+        return ConditionEvaluationResult.enabled("Result cache applies to each invocation");
+    }
+
+    @Override
+    public void testSuccessful(ExtensionContext context) {
+        String key = context.getStore(NAMESPACE).get(KEY, String.class);
+        if (key != null && !CACHE.failedInRun(key)) {
+            CACHE.recordPass(key, context.getDisplayName());
+        }
+        templateOutcome(context).ifPresent(TemplateOutcome::passed);
+    }
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        String key = context.getStore(NAMESPACE).get(KEY, String.class);
+        if (key != null) {
+            CACHE.recordFailure(key);
+        }
+        templateOutcome(context).ifPresent(TemplateOutcome::failed);
+    }
+
+    @Override
+    public void testAborted(ExtensionContext context, Throwable cause) {
+        templateOutcome(context).ifPresent(TemplateOutcome::failed);
+    }
+
+    @Override
+    public void testDisabled(ExtensionContext context, Optional<String> reason) {
+        // Invocations skipped by the cache were already counted as passes
+        if (!reason.orElse("").startsWith("Passed in result cache")) {
+            templateOutcome(context).ifPresent(TemplateOutcome::failed);
+        }
+    }
+
+    private static Optional<TemplateOutcome> templateOutcome(ExtensionContext invocation) {
+        return invocation.getParent()
+                .map(template -> template.getStore(NAMESPACE).get(TEMPLATE, TemplateOutcome.class));
+    }
+
+    /**
+     * Outcome of a parameterized test's invocations, stored as a pass when the template finishes clean
+     */
+    private static class TemplateOutcome implements ExtensionContext.Store.CloseableResource {
+        private final String key;
+        private final String testName;
+        private int passed;
+        private boolean failed;
+
+        TemplateOutcome(String key, String testName) {
+            this.key = key;
+            this.testName = testName;
+        }
+
+        synchronized void passed() {
+            passed++;
+        }
+
+        synchronized void failed() {
+            failed = true;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (failed) {
+                CACHE.recordFailure(key);
+            } else if (passed > 0 && !CACHE.failedInRun(key)) {
+                CACHE.recordPass(key, testName);
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.cache;
+
+import com.example.config.TestConfig;
+import com.example.data.CsvDataSource;
+import com.example.data.DataPartition;
+import com.example.data.MappedCsvArgumentsProvider;
+import com.example.events.EventLog;
+import com.example.network.HarNetwork;
+import com.example.visual.VisualRegression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content hash of everything a test's outcome depends on:
+ * - the bytecode of the test class and of every com.example class it reaches
+ *   (page objects, BaseTest, PageFactory, TestConfig, ...), found by following
+ *   class references in the constant pools
+ * - the TestConfig values that change what the browser does
+ * - the visual baselines of the browser when visual checks are on
+ * - a fingerprint of the target site: the test's HAR archive in replay mode,
+ *   or -Dsite.fingerprint (e.g. a stand-in version) otherwise
+ * A parameterized test as a whole also depends on its data file and on the
+ * rows this process runs from it.
+ */
+public class TestFingerprint {
+
+    private static final Pattern CLASS_REFERENCE = Pattern.compile("com/example/[A-Za-z0-9_/$]+");
+    // The cache itself does not influence test outcomes
+    private static final String IGNORED_PACKAGE = "com/example/cache/";
+
+    private TestFingerprint() {
+    }
+
+    /**
+     * Returns the cache key of a test, or empty if its inputs cannot be pinned down
+     */
+    public static Optional<String> of(Class<?> testClass, Method testMethod) {
+        Optional<byte[]> site = siteFingerprint(testClass, testMethod);
+        if (site.isEmpty()) {
+            return Optional.empty();
+        }
+        MessageDigest digest = sha256();
+        update(digest, testClass.getName() + "#" + testMethod.getName()
+                + Arrays.toString(testMethod.getParameterTypes()));
+        try {
+            for (String className : reachableClasses(testClass)) {
+                update(digest, className);
+                digest.update(bytecode(testClass.getClassLoader(), className));
+            }
+        } catch (IOException e) {
+            EventLog.error("Failed to read bytecode for result cache key: " + e.getMessage());
+            return Optional.empty();
+        }
+        update(digest, String.join("|",
+                TestConfig.BROWSER,
+                String.valueOf(TestConfig.HEADLESS),
+                TestConfig.VIEWPORT_WIDTH + "x" + TestConfig.VIEWPORT_HEIGHT,
+                TestConfig.BASE_URL,
+                TestConfig.NETWORK_MODE,
+                TestConfig.HAR_VERSION,
+                TestConfig.THROTTLE_PROFILE,
+                String.valueOf(TestConfig.VISUAL_CHECK)));
+        if (TestConfig.VISUAL_CHECK) {
+            digest.update(VisualRegression.baselineFingerprint());
+        }
+        digest.update(site.get());
+        return Optional.of(hex(digest.digest()));
+    }
+
+    /**
+     * Returns the cache key of all invocations of a parameterized test together, or empty
+     */
+    public static Optional<String> ofTemplate(Class<?> testClass, Method testMethod) {
+        Optional<String> key = of(testClass, testMethod);
+        CsvDataSource source = testMethod.getAnnotation(CsvDataSource.class);
+        if (key.isEmpty() || source == null) {
+            // Other argument sources are annotations or methods, already part of the bytecode
+            return key;
+        }
+        try {
+            Path data = MappedCsvArgumentsProvider.resolve(testClass, source.value());
+            return Optional.of(ofClasses(List.of(), key.get(), hex(digestOf(data)),
+                    DataPartition.current().toString(), String.valueOf(source.limit()),
+                    String.valueOf(TestConfig.DATA_ROW_LIMIT)));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Hash of the bytecode of the given classes and of extra values, for state built by those classes
+     */
+    public static String ofClasses(List<Class<?>> classes, String... values) {
+        MessageDigest digest = sha256();
+        try {
+            for (Class<?> clazz : classes) {
+                update(digest, clazz.getName());
+                digest.update(bytecode(clazz.getClassLoader(), internalName(clazz)));
+            }
+        } catch (IOException e) {
+            // Unreadable bytecode cannot match a stored hash, so the state is rebuilt
+            update(digest, "unreadable:" + System.nanoTime());
+        }
+        for (String value : values) {
+            update(digest, value);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Hash of the bytecode of a class and of every com.example class it reaches, and of extra values
+     */
+    public static String ofReachableClasses(Class<?> root, String... values) {
+        MessageDigest digest = sha256();
+        try {
+            for (String className : reachableClasses(root)) {
+                update(digest, className);
+                digest.update(bytecode(root.getClassLoader(), className));
+            }
+        } catch (IOException e) {
+            // Unreadable bytecode cannot match a stored hash, so the state is rebuilt
+            update(digest, "unreadable:" + System.nanoTime());
+        }
+        for (String value : values) {
+            update(digest, value);
+        }
+        return hex(digest.digest());
+    }
+
+    private static Optional<byte[]> siteFingerprint(Class<?> testClass, Method testMethod) {
+        if (HarNetwork.MODE == HarNetwork.Mode.REPLAY) {
+            Path har = HarNetwork.harPath(testClass, testMethod);
+            try {
+                return Files.exists(har) ? Optional.of(sha256().digest(Files.readAllBytes(har))) : Optional.empty();
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+        if (TestConfig.SITE_FINGERPRINT.isEmpty()) {
+            // A live site can change at any time, so nothing is cacheable without a fingerprint
+            return Optional.empty();
+        }
+        return Optional.of(TestConfig.SITE_FINGERPRINT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Follows class references from the root class through every com.example class, sorted for a stable key
+     */
+    private static Set<String> reachableClasses(Class<?> testClass) throws IOException {
+        Set<String> visited = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(internalName(testClass));
+        while (!pending.isEmpty()) {
+            String className = pending.poll();
+            if (className.startsWith(IGNORED_PACKAGE) || !visited.add(className)) {
+                continue;
+            }
+            byte[] bytes = bytecode(testClass.getClassLoader(), className);
+            Matcher matcher = CLASS_REFERENCE.matcher(new String(bytes, StandardCharsets.ISO_8859_1));
+            while (matcher.find()) {
+                if (!visited.contains(matcher.group())) {
+                    pending.add(matcher.group());
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static byte[] bytecode(ClassLoader loader, String internalName) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+            // Package names and resources also match the pattern, they simply have no bytecode
+            return in != null ? in.readAllBytes() : new byte[0];
+        }
+    }
+
+    private static byte[] digestOf(Path file) throws IOException {
+        // Streamed, data files can be far larger than the heap
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static String internalName(Class<?> clazz) {
+        return clazz.getName().replace('.', '/');
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.checkpoint;
+
+import com.example.config.TestConfig;
+import com.example.factory.PageFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Named points in the shopping journey that tests can start from with @StartFrom
+ * Each checkpoint is its parent plus one step, run through the page objects.
+ */
+public enum Checkpoint {
+
+    LOGGED_IN("logged-in", null, pages -> {
+        pages.loginPage().navigate();
+        pages.loginPage().login(TestConfig.STANDARD_USER, TestConfig.PASSWORD);
+    }),
+
+    CART_WITH_BACKPACK("cart-with-backpack", LOGGED_IN, pages -> {
+        pages.productsPage().addProductToCart("sauce-labs-backpack");
+        pages.productsPage().goToCart();
+    }),
+
+    CHECKOUT_STEP_ONE("checkout-step-one", CART_WITH_BACKPACK, pages -> {
+        // Checked while building, so a cart that lost its item is never saved as a checkpoint
+        assertTrue(pages.cartPage().isCartItemDisplayed(), "Cart should have items");
+        pages.cartPage().proceedToCheckout();
+    }),
+
+    CHECKOUT_STEP_TWO("checkout-step-two", CHECKOUT_STEP_ONE, pages -> {
+        pages.checkoutPage().fillCheckoutInformation("John", "Doe", "12345");
+        pages.checkoutPage().clickContinue();
+    });
+
+    private final String checkpointName;
+    private final Checkpoint parent;
+    private final Consumer<PageFactory> step;
+
+    Checkpoint(String checkpointName, Checkpoint parent, Consumer<PageFactory> step) {
+        this.checkpointName = checkpointName;
+        this.parent = parent;
+        this.step = step;
+    }
+
+    public String getCheckpointName() {
+        return checkpointName;
+    }
+
+    /**
+     * This checkpoint and its ancestors, starting from the root
+     */
+    public List<Checkpoint> chain() {
+        List<Checkpoint> chain = new ArrayList<>();
+        for (Checkpoint checkpoint = this; checkpoint != null; checkpoint = checkpoint.parent) {
+            chain.add(checkpoint);
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    void runStep(PageFactory pages) {
+        step.accept(pages);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.checkpoint;
+
+import com.example.cache.TestFingerprint;
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.factory.PageFactory;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Saves and restores checkpoints as storage state (cookies, local storage) plus the page URL
+ *
+ * Files under checkpoint.dir, per checkpoint:
+ *   <name>.state.json  - storage state of the context
+ *   <name>.properties  - key, URL and creation time
+ * The key hashes Checkpoint, whose bytecode holds the journey steps, and every
+ * class the steps reach (PageFactory, the page objects, PageQueries, ...), so
+ * a checkpoint is rebuilt when any of them changes. It is also rebuilt after
+ * checkpoint.max.age, before the site's session cookie runs out.
+ */
+public class CheckpointStore {
+
+    private CheckpointStore() {
+    }
+
+    /**
+     * Returns the saved checkpoint if it is still valid
+     */
+    public static Optional<Snapshot> load(Checkpoint checkpoint) {
+        if (!TestConfig.CHECKPOINTS) {
+            return Optional.empty();
+        }
+        Path properties = propertiesFile(checkpoint);
+        Path state = stateFile(checkpoint);
+        if (!Files.exists(properties) || !Files.exists(state)) {
+            return Optional.empty();
+        }
+        try (Reader reader = Files.newBufferedReader(properties, StandardCharsets.UTF_8)) {
+            Properties saved = new Properties();
+            saved.load(reader);
+            long age = System.currentTimeMillis() - Long.parseLong(saved.getProperty("created", "0"));
+            if (!key(checkpoint).equals(saved.getProperty("key")) || age > TestConfig.CHECKPOINT_MAX_AGE_MS) {
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(new String(Files.readAllBytes(state), StandardCharsets.UTF_8),
+                    saved.getProperty("url")));
+        } catch (IOException | NumberFormatException e) {
+            EventLog.error("Failed to load checkpoint " + checkpoint.getCheckpointName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs the journey to the checkpoint in the given page, saving every checkpoint on the way
+     */
+    public static void build(Checkpoint checkpoint, PageFactory pages, BrowserContext context, Page page) {
+        for (Checkpoint step : checkpoint.chain()) {
+            step.runStep(pages);
+            save(step, context, page);
+        }
+        EventLog.info("Checkpoint built: " + checkpoint.getCheckpointName());
+    }
+
+    private static void save(Checkpoint checkpoint, BrowserContext context, Page page) {
+        try {
+            Path dir = Paths.get(TestConfig.CHECKPOINT_DIR);
+            Files.createDirectories(dir);
+            Properties saved = new Properties();
+            saved.setProperty("key", key(checkpoint));
+            saved.setProperty("url", page.url());
+            saved.setProperty("created", String.valueOf(System.currentTimeMillis()));
+
+            // Write to temporary files and move them in place, other forks may be reading
+            Path state = Files.createTempFile(dir, checkpoint.getCheckpointName(), ".tmp");
+            Files.write(state, context.storageState().getBytes(StandardCharsets.UTF_8));
+            Path properties = Files.createTempFile(dir, checkpoint.getCheckpointName(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(properties, StandardCharsets.UTF_8)) {
+                saved.store(writer, "Checkpoint " + checkpoint.getCheckpointName());
+            }
+            Files.move(state, stateFile(checkpoint), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(properties, propertiesFile(checkpoint), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            EventLog.error("Failed to save checkpoint " + checkpoint.getCheckpointName() + ": " + e.getMessage());
+        }
+    }
+
+    private static String key(Checkpoint checkpoint) {
+        return TestFingerprint.ofReachableClasses(Checkpoint.class, checkpoint.getCheckpointName(),
+                TestConfig.BROWSER, TestConfig.BASE_URL, TestConfig.NETWORK_MODE, TestConfig.HAR_VERSION);
+    }
+
+    private static Path stateFile(Checkpoint checkpoint) {
+        return Paths.get(TestConfig.CHECKPOINT_DIR, checkpoint.getCheckpointName() + ".state.json");
+    }
+
+    private static Path propertiesFile(Checkpoint checkpoint) {
+        return Paths.get(TestConfig.CHECKPOINT_DIR, checkpoint.getCheckpointName() + ".properties");
+    }
+
+    /**
+     * A saved checkpoint, ready to be restored into a new context
+     */
+    public static class Snapshot {
+        private final String storageState;
+        private final String url;
+
+        Snapshot(String storageState, String url) {
+            this.storageState = storageState;
+            this.url = url;
+        }
+
+        public String getStorageState() {
+            return storageState;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.checkpoint;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Starts the test from a saved checkpoint instead of replaying the journey to it
+ * Usage: @StartFrom(Checkpoint.CHECKOUT_STEP_TWO)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StartFrom {
+    Checkpoint value();
+}
@@ -7,17 +7,86 @@ public class TestConfig {
     public static final boolean HEADLESS = Boolean.parseBoolean(System.getProperty("headless", "false"));
     public static final int SLOW_MO = Integer.parseInt(System.getProperty("slowmo", "50"));
     
-    // Parallel Execution Configuration
-    public static final int WORKERS = Integer.parseInt(System.getProperty("workers", "4"));
+    // Startup Configuration (launch the browser during test discovery, keep the driver unpacked between runs)
+    public static final boolean BROWSER_PRELAUNCH = Boolean.parseBoolean(System.getProperty("browser.prelaunch", "true"));
+    public static final boolean DRIVER_CACHE = Boolean.parseBoolean(System.getProperty("driver.cache", "true"));
+    public static final String DRIVER_CACHE_DIR = System.getProperty("driver.cache.dir",
+            System.getProperty("user.home") + "/.cache/playwright-java-driver");
+    public static final boolean CDS = Boolean.parseBoolean(System.getProperty("cds", "true"));
+    public static final String CDS_DIR = System.getProperty("cds.dir", ".cds");
+    
+    // Shared Browser Server Configuration (one browser server per machine, forks connect over a local websocket)
+    public static final boolean BROWSER_SERVER = Boolean.parseBoolean(System.getProperty("browser.server", "false"));
+    public static final int BROWSER_SERVER_PORT = Integer.parseInt(System.getProperty("browser.server.port", "9400"));
+    public static final int BROWSER_SERVER_COUNT = Integer.parseInt(System.getProperty("browser.server.count", "1"));
+    public static final int BROWSER_SERVER_MAX_CONTEXTS = Integer.parseInt(System.getProperty("browser.server.max.contexts", "8"));
+    public static final String BROWSER_SERVER_DIR = System.getProperty("browser.server.dir", "target/browser-server");
+    
+    // Parallel Execution Configuration (workers=auto sizes the dispatcher from host CPU and memory)
+    public static final boolean WORKERS_AUTO = "auto".equalsIgnoreCase(System.getProperty("workers", "4"));
+    public static final int WORKERS_MAX = Integer.parseInt(System.getProperty("workers.max",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    public static final int WORKERS = WORKERS_AUTO ? WORKERS_MAX : Integer.parseInt(System.getProperty("workers", "4"));
+    public static final long WORKERS_AUTO_INTERVAL_MS = Long.parseLong(System.getProperty("workers.auto.interval", "5000"));
+    
+    // Test Dispatcher Configuration (worker processes pull individual test methods from a local queue)
+    public static final String DISPATCH_PACKAGE = System.getProperty("dispatch.package", "com.example.tests");
+    public static final String DISPATCH_DIR = System.getProperty("dispatch.dir", "target/dispatch");
+    
+    // Test Data Configuration (data-driven tests are split into this many partitions by the dispatcher)
+    public static final int DATA_PARTITIONS = Integer.parseInt(System.getProperty("data.partitions", String.valueOf(WORKERS)));
+    public static final long DATA_ROW_LIMIT = Long.parseLong(System.getProperty("data.rows", "-1"));
+    
+    // Test Daemon Configuration (keeps Playwright and the browser warm between runs)
+    public static final int DAEMON_PORT = Integer.parseInt(System.getProperty("daemon.port", "9500"));
+    
+    // Event Log Configuration (structured events drained by one background thread)
+    public static final String EVENTS_FILE = System.getProperty("events.file", "target/events.ndjson");
+    public static final boolean EVENTS_CONSOLE = Boolean.parseBoolean(System.getProperty("events.console", "true"));
+    public static final int EVENTS_BUFFER = Integer.parseInt(System.getProperty("events.buffer", "8192"));
+    
+    // Live Report Configuration (results appended as each test finishes)
+    public static final String REPORT_DIR = System.getProperty("report.dir", "target/live-report");
+    public static final int REPORT_PORT = Integer.parseInt(System.getProperty("report.port", "0"));
+    public static final String REPORT_RUN = System.getProperty("report.run", ""); // shared by the forks of one build, empty = one per JVM
+    
+    // Browser Resource Configuration (per-test browser CPU and memory, leaked contexts and pages)
+    public static final boolean RESOURCES_TRACK = Boolean.parseBoolean(System.getProperty("resources.track", "true"));
+    public static final long RESOURCES_LEAK_MB = Long.parseLong(System.getProperty("resources.leak.mb", "100"));
+    
+    // Shared Context Configuration (@ReadOnly tests open tabs in one logged-in context)
+    public static final boolean SHARED_CONTEXT = Boolean.parseBoolean(System.getProperty("shared.context", "true"));
     
     // Retry Configuration
     public static final int MAX_RETRIES = Integer.parseInt(System.getProperty("retries", "2"));
     
+    // Quarantine Configuration (chronically flaky tests run in their own lane, after the main lane)
+    public static final boolean QUARANTINE = Boolean.parseBoolean(System.getProperty("quarantine", "true"));
+    public static final String QUARANTINE_LANE = System.getProperty("quarantine.lane", "all"); // all, main, quarantine
+    public static final String QUARANTINE_HISTORY = System.getProperty("quarantine.history", ".flaky-history.tsv");
+    public static final String QUARANTINE_DECISION = System.getProperty("quarantine.decision", "target/quarantine-decision.tsv");
+    public static final int QUARANTINE_WINDOW = Integer.parseInt(System.getProperty("quarantine.window", "20"));
+    public static final int QUARANTINE_MIN_RUNS = Integer.parseInt(System.getProperty("quarantine.min.runs", "5"));
+    public static final double QUARANTINE_THRESHOLD = Double.parseDouble(System.getProperty("quarantine.threshold", "0.2"));
+    public static final int QUARANTINE_STABLE_RUNS = Integer.parseInt(System.getProperty("quarantine.stable.runs", "5"));
+    public static final int QUARANTINE_RETRIES = Integer.parseInt(System.getProperty("quarantine.retries", "3"));
+    
     // Screenshot Configuration
     public static final boolean SCREENSHOT_ON_FAILURE = Boolean.parseBoolean(System.getProperty("screenshot.failure", "true"));
     public static final boolean SCREENSHOT_ON_SUCCESS = Boolean.parseBoolean(System.getProperty("screenshot.success", "false"));
     public static final String SCREENSHOT_DIR = System.getProperty("screenshot.dir", "target/screenshots");
     
+    // Visual Regression Configuration (page object visual checks against stored baselines)
+    public static final boolean VISUAL_CHECK = Boolean.parseBoolean(System.getProperty("visual.check", "false"));
+    public static final boolean VISUAL_UPDATE = Boolean.parseBoolean(System.getProperty("visual.update", "false"));
+    public static final String VISUAL_BASELINE_DIR = System.getProperty("visual.baseline.dir", "src/test/resources/visual-baselines");
+    public static final String VISUAL_DIR = System.getProperty("visual.dir", "target/visual");
+    public static final int VISUAL_THREADS = Integer.parseInt(System.getProperty("visual.threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    public static final int VISUAL_HASH_DISTANCE = Integer.parseInt(System.getProperty("visual.hash.distance", "-1"));
+    public static final int VISUAL_PIXEL_TOLERANCE = Integer.parseInt(System.getProperty("visual.pixel.tolerance", "16"));
+    public static final double VISUAL_MAX_DIFF_RATIO = Double.parseDouble(System.getProperty("visual.max.diff.ratio", "0.001"));
+    
     // Video Configuration
     public static final boolean RECORD_VIDEO = Boolean.parseBoolean(System.getProperty("record.video", "false"));
     public static final String VIDEO_DIR = System.getProperty("video.dir", "target/videos");
@@ -26,6 +95,52 @@ public class TestConfig {
     public static final boolean ENABLE_TRACE = Boolean.parseBoolean(System.getProperty("enable.trace", "false"));
     public static final String TRACE_DIR = System.getProperty("trace.dir", "target/traces");
     
+    // Failure Diagnostics Configuration (per-context rings of console, page errors and responses, written on failure)
+    public static final boolean DIAGNOSTICS = Boolean.parseBoolean(System.getProperty("diagnostics", "true"));
+    public static final int DIAGNOSTICS_BUFFER = Integer.parseInt(System.getProperty("diagnostics.buffer", "200"));
+    public static final String DIAGNOSTICS_DIR = System.getProperty("diagnostics.dir", "target/diagnostics");
+    
+    // Network Configuration (live, record or replay traffic from HAR archives)
+    public static final String NETWORK_MODE = System.getProperty("network.mode", "live");
+    public static final String HAR_DIR = System.getProperty("har.dir", "src/test/resources/har");
+    public static final String HAR_VERSION = System.getProperty("har.version", "v1");
+    
+    // Result Cache Configuration (skip tests whose inputs match a stored pass)
+    public static final boolean RESULT_CACHE = Boolean.parseBoolean(System.getProperty("result.cache", "false"));
+    public static final String RESULT_CACHE_DIR = System.getProperty("result.cache.dir", ".result-cache");
+    public static final int RESULT_CACHE_MAX_ENTRIES = Integer.parseInt(System.getProperty("result.cache.max.entries", "1000"));
+    public static final String SITE_FINGERPRINT = System.getProperty("site.fingerprint", "");
+    
+    // Test Impact Configuration (record what each test touches, select tests affected by changes)
+    public static final boolean IMPACT_RECORD = Boolean.parseBoolean(System.getProperty("impact.record", "false"));
+    public static final String IMPACT_SINCE = System.getProperty("impact.since", "");
+    public static final String IMPACT_INDEX = System.getProperty("impact.index", ".impact-index.tsv");
+    
+    // Selector Profiling Configuration (time how long each page object selector takes to resolve)
+    public static final boolean SELECTOR_PROFILE = Boolean.parseBoolean(System.getProperty("selector.profile", "false"));
+    public static final long SELECTOR_PROFILE_SLOW_MS = Long.parseLong(System.getProperty("selector.profile.slow.ms", "20"));
+    
+    // Throttling Configuration (emulate slow CPU and network on chromium, time page objects against budgets)
+    public static final String THROTTLE_PROFILE = System.getProperty("throttle.profile", "none");
+    public static final boolean PERF_TIMINGS = Boolean.parseBoolean(System.getProperty("perf.timings", "false"));
+    public static final String PERF_BUDGETS = System.getProperty("perf.budgets", "src/test/resources/perf-budgets.properties");
+    
+    // Timing History Configuration (save timings per run, flag statistically significant slowdowns)
+    public static final boolean PERF_HISTORY = Boolean.parseBoolean(System.getProperty("perf.history", "false"));
+    public static final String PERF_HISTORY_DIR = System.getProperty("perf.history.dir", ".perf-history");
+    public static final int PERF_HISTORY_RUNS = Integer.parseInt(System.getProperty("perf.history.runs", "10"));
+    public static final double PERF_REGRESSION_ALPHA = Double.parseDouble(System.getProperty("perf.regression.alpha", "0.01"));
+    public static final double PERF_REGRESSION_MIN = Double.parseDouble(System.getProperty("perf.regression.min", "0.1"));
+    
+    // Round Trip Configuration (count driver calls per test, compare with a committed baseline)
+    public static final boolean ROUND_TRIPS = Boolean.parseBoolean(System.getProperty("round.trips", "false"));
+    public static final String ROUND_TRIPS_BASELINE = System.getProperty("round.trips.baseline", "src/test/resources/round-trips-baseline.csv");
+    
+    // Checkpoint Configuration (tests annotated with @StartFrom restore saved journey state)
+    public static final boolean CHECKPOINTS = Boolean.parseBoolean(System.getProperty("checkpoints", "true"));
+    public static final String CHECKPOINT_DIR = System.getProperty("checkpoint.dir", "target/checkpoints");
+    public static final long CHECKPOINT_MAX_AGE_MS = Long.parseLong(System.getProperty("checkpoint.max.age", "300000"));
+    
     // Parallel Execution Configuration
     public static final boolean PARALLEL_EXECUTION = Boolean.parseBoolean(System.getProperty("parallel.execution", "false"));
     
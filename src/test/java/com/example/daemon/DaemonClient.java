@@ -0,0 +1,87 @@
+package com.example.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Command line client for the TestDaemon, depends on the JDK only
+ *
+ *   DaemonClient SauceDemoTest#testLogout,SauceDemoTestWithFactory   run once
+ *   DaemonClient --watch SauceDemoTest                                 rerun whenever classes are recompiled
+ *   DaemonClient --stop                                                stop the daemon
+ */
+public class DaemonClient {
+
+    private static final long WATCH_INTERVAL_MS = 500;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: DaemonClient [--watch] <Class[#method],...> | --stop");
+            System.exit(2);
+        }
+        if (args[0].equals("--stop")) {
+            System.exit(send(TestDaemon.STOP));
+        }
+        if (args[0].equals("--watch")) {
+            watch(String.join(",", java.util.Arrays.copyOfRange(args, 1, args.length)));
+        }
+        System.exit(send(TestDaemon.RUN + "\t" + String.join(",", args)));
+    }
+
+    /**
+     * Sends one request and prints the streamed results, returns 1 if any test failed
+     */
+    private static int send(String request) throws IOException {
+        int port = Integer.parseInt(System.getProperty("daemon.port", "9500"));
+        int exitCode = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            out.println(request);
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(TestDaemon.END)) {
+                System.out.println(line);
+                if (line.startsWith("✗ FAILED")) {
+                    exitCode = 1;
+                }
+            }
+        }
+        return exitCode;
+    }
+
+    private static void watch(String tests) throws IOException, InterruptedException {
+        long lastModified = -1;
+        while (true) {
+            long modified = Math.max(newestClassFile(Paths.get("target", "classes")),
+                    newestClassFile(Paths.get("target", "test-classes")));
+            if (modified != lastModified) {
+                lastModified = modified;
+                send(TestDaemon.RUN + "\t" + tests);
+                System.out.println("Watching for recompiled classes...");
+            }
+            Thread.sleep(WATCH_INTERVAL_MS);
+        }
+    }
+
+    private static long newestClassFile(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.toString().endsWith(".class"))
+                    .mapToLong(file -> file.toFile().lastModified())
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.daemon;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Child-first class loader for the project's compiled classes
+ * A new instance per daemon run picks up recompiled page objects and tests.
+ * The daemon package itself is shared with the parent so the warm browser survives,
+ * and so is the event log so its drain thread is not started again on every run.
+ */
+class ReloadingClassLoader extends URLClassLoader {
+
+    private static final String RELOADED_PREFIX = "com.example.";
+    private static final String SHARED_PREFIX = "com.example.daemon.";
+    private static final String SHARED_EVENTS_PREFIX = "com.example.events.";
+
+    ReloadingClassLoader(URL[] classDirectories, ClassLoader parent) {
+        super(classDirectories, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith(RELOADED_PREFIX) || name.startsWith(SHARED_PREFIX) || name.startsWith(SHARED_EVENTS_PREFIX)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                try {
+                    loaded = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    return super.loadClass(name, resolve);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+}
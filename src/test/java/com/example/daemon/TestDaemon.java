@@ -0,0 +1,187 @@
+package com.example.daemon;
+
+import com.example.base.BaseTest;
+import com.example.config.TestConfig;
+import com.example.launch.DriverCache;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Playwright;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+
+/**
+ * Long-running test daemon for the developer inner loop
+ * Keeps Playwright and the browser alive between runs and accepts
+ * "run these tests" requests on a local socket. Every request loads the
+ * page objects and tests from target/classes and target/test-classes
+ * afresh, so recompiled code is picked up without restarting.
+ *
+ * Start with: mvn test-compile exec:exec -Pdaemon
+ * Run tests with: java -cp target/test-classes com.example.daemon.DaemonClient SauceDemoTest#testLogout
+ *
+ * Requests are served one at a time on the thread that created Playwright,
+ * since Playwright objects are not thread safe.
+ */
+public class TestDaemon {
+
+    static final String RUN = "RUN";
+    static final String STOP = "STOP";
+    static final String END = "END";
+
+    private static final String DEFAULT_TEST_PACKAGE = "com.example.tests.";
+
+    public static void main(String[] args) throws IOException {
+        DriverCache.install();
+        try (Playwright playwright = Playwright.create();
+             ServerSocket server = new ServerSocket(TestConfig.DAEMON_PORT, 50, InetAddress.getLoopbackAddress())) {
+            Browser browser = BaseTest.selectBrowserType(playwright).launch(BaseTest.launchOptions());
+            WarmBrowser.set(playwright, browser, false);
+            System.out.println("Test daemon ready on port " + TestConfig.DAEMON_PORT + " with " + TestConfig.BROWSER);
+
+            boolean running = true;
+            while (running) {
+                try (Socket socket = server.accept()) {
+                    running = serve(socket);
+                } catch (IOException e) {
+                    System.err.println("Failed to serve daemon request: " + e.getMessage());
+                }
+            }
+        } finally {
+            WarmBrowser.clear();
+        }
+    }
+
+    private static boolean serve(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        String request = in.readLine();
+        if (request == null) {
+            return true;
+        }
+        if (request.equals(STOP)) {
+            out.println("Test daemon stopped");
+            out.println(END);
+            return false;
+        }
+        if (!request.startsWith(RUN + "\t")) {
+            out.println("Unknown request: " + request);
+            out.println(END);
+            return true;
+        }
+
+        if (!WarmBrowser.isAvailable()) {
+            // The browser crashed since the last run, bring it back before running anything
+            Playwright playwright = WarmBrowser.playwright();
+            WarmBrowser.set(playwright, BaseTest.selectBrowserType(playwright).launch(BaseTest.launchOptions()), false);
+        }
+        run(request.substring(RUN.length() + 1).split(","), out);
+        out.println(END);
+        return true;
+    }
+
+    /**
+     * Runs the selected tests in a fresh class loader and streams results to the client
+     */
+    private static void run(String[] tests, PrintWriter out) throws MalformedURLException {
+        long start = System.currentTimeMillis();
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        try (ReloadingClassLoader loader = new ReloadingClassLoader(new URL[] {
+                Paths.get("target", "test-classes").toUri().toURL(),
+                Paths.get("target", "classes").toUri().toURL()
+        }, TestDaemon.class.getClassLoader())) {
+            // JUnit resolves test classes through the context class loader
+            Thread.currentThread().setContextClassLoader(loader);
+            // Read by this run's fresh copy of TestConfig, the live report shows the latest run only
+            System.setProperty("report.run", "daemon-" + start);
+            ResultStream results = new ResultStream(out);
+            LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+                    .selectors(selectors(tests))
+                    .build(), results);
+            out.println(String.format("Passed: %d, Failed: %d, Skipped: %d in %d ms",
+                    results.passed, results.failed, results.skipped, System.currentTimeMillis() - start));
+        } catch (IOException e) {
+            out.println("Failed to run tests: " + e.getMessage());
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * Accepts Class, Class#method and fully qualified names; bare class names are looked up in com.example.tests
+     */
+    private static List<DiscoverySelector> selectors(String[] tests) {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        for (String test : tests) {
+            String name = test.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!name.contains(".")) {
+                name = DEFAULT_TEST_PACKAGE + name;
+            }
+            selectors.add(name.contains("#") ? selectMethod(name) : selectClass(name));
+        }
+        return selectors;
+    }
+
+    /**
+     * Streams one line per finished test back to the client
+     */
+    private static class ResultStream implements TestExecutionListener {
+        private final PrintWriter out;
+        private int passed;
+        private int failed;
+        private int skipped;
+
+        ResultStream(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+            if (testIdentifier.isTest()) {
+                skipped++;
+                out.println("⊗ DISABLED: " + testIdentifier.getDisplayName() + " - " + reason);
+            }
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+            if (!testIdentifier.isTest() && result.getStatus() == TestExecutionResult.Status.SUCCESSFUL) {
+                return;
+            }
+            if (result.getStatus() == TestExecutionResult.Status.SUCCESSFUL) {
+                passed++;
+                out.println("✓ PASSED: " + testIdentifier.getDisplayName());
+            } else if (result.getStatus() == TestExecutionResult.Status.ABORTED) {
+                skipped++;
+                out.println("⊘ ABORTED: " + testIdentifier.getDisplayName());
+            } else {
+                failed++;
+                out.println("✗ FAILED: " + testIdentifier.getDisplayName());
+                out.println("  Reason: " + result.getThrowable().map(Throwable::getMessage).orElse(""));
+            }
+        }
+    }
+}
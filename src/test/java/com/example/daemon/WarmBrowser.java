@@ -0,0 +1,53 @@
+package com.example.daemon;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Playwright;
+
+/**
+ * Playwright instance and browser kept alive by the TestDaemon or a DispatchWorker
+ * Always loaded by the daemon's own class loader, so every reloaded copy
+ * of BaseTest sees the same instance. A dispatch worker never reloads its
+ * classes, so it also lets test classes keep state such as the shared
+ * read-only context between tests.
+ */
+public final class WarmBrowser {
+
+    private static volatile Playwright playwright;
+    private static volatile Browser browser;
+    private static volatile boolean keepsSharedContext;
+
+    private WarmBrowser() {
+    }
+
+    public static void set(Playwright warmPlaywright, Browser warmBrowser, boolean sharedContextKept) {
+        playwright = warmPlaywright;
+        browser = warmBrowser;
+        keepsSharedContext = sharedContextKept;
+    }
+
+    public static void clear() {
+        playwright = null;
+        browser = null;
+        keepsSharedContext = false;
+    }
+
+    public static boolean isAvailable() {
+        Browser current = browser;
+        return current != null && current.isConnected();
+    }
+
+    /**
+     * Whether test classes leave the shared read-only context open for the next class
+     */
+    public static boolean keepsSharedContext() {
+        return keepsSharedContext;
+    }
+
+    public static Playwright playwright() {
+        return playwright;
+    }
+
+    public static Browser browser() {
+        return browser;
+    }
+}
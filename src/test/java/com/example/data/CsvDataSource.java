@@ -0,0 +1,26 @@
+package com.example.data;
+
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Streams the rows of a CSV file into a @ParameterizedTest, one invocation per row
+ * The path is a file path, or a classpath resource such as "/data/checkout-customers.csv".
+ * Under the test dispatcher the rows are split between workers.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@ArgumentsSource(MappedCsvArgumentsProvider.class)
+public @interface CsvDataSource {
+
+    String value();
+
+    /**
+     * Maximum rows to run from this process's partition, -1 for all
+     */
+    long limit() default -1;
+}
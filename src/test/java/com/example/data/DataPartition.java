@@ -0,0 +1,48 @@
+package com.example.data;
+
+/**
+ * Share of a data file one worker runs, e.g. "2/4" for the third of four partitions
+ * The dispatcher sets the data.partition property on a worker before each data-driven test.
+ */
+public class DataPartition {
+
+    public static final String PROPERTY = "data.partition";
+    public static final DataPartition ALL = new DataPartition(0, 1);
+
+    private final int index;
+    private final int count;
+
+    public DataPartition(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid data partition " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Partition assigned to this process, or the whole file when none is
+     */
+    public static DataPartition current() {
+        String value = System.getProperty(PROPERTY, "");
+        return value.isEmpty() ? ALL : parse(value);
+    }
+
+    public static DataPartition parse(String value) {
+        String[] parts = value.split("/");
+        return new DataPartition(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
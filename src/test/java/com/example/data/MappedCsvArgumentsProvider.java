@@ -0,0 +1,73 @@
+package com.example.data;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Feeds @CsvDataSource rows to JUnit as a lazy stream, the file is closed when JUnit closes the stream
+ */
+public class MappedCsvArgumentsProvider implements ArgumentsProvider, AnnotationConsumer<CsvDataSource> {
+
+    private CsvDataSource source;
+
+    @Override
+    public void accept(CsvDataSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) throws IOException {
+        Path path = resolve(context.getRequiredTestClass(), source.value());
+        DataPartition partition = DataPartition.current();
+        MappedCsvFile file = new MappedCsvFile(path);
+        EventLog.info("Streaming " + path.getFileName() + " partition " + partition
+                + " (columns " + String.join(", ", file.getHeader()) + ")");
+
+        long limit = source.limit() >= 0 ? source.limit() : TestConfig.DATA_ROW_LIMIT;
+        Stream<String[]> rows = file.rows(partition);
+        if (limit >= 0) {
+            rows = rows.limit(limit);
+        }
+        return rows.map(row -> Arguments.of((Object[]) row))
+                .onClose(() -> {
+                    try {
+                        file.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Finds a @CsvDataSource file, as a file path or as a resource of the test class
+     */
+    public static Path resolve(Class<?> testClass, String location) throws IOException {
+        Path path = Paths.get(location);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        URL resource = testClass.getResource(location);
+        if (resource == null) {
+            throw new IOException("Test data not found: " + location);
+        }
+        try {
+            // Mapping needs a real file, so resources inside jars are not supported
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Test data is not a file: " + resource, e);
+        }
+    }
+}
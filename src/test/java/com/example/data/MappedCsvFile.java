@@ -0,0 +1,223 @@
+package com.example.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CSV file read through a sliding memory-mapped window
+ *
+ * Rows are found and parsed one at a time as the stream is consumed, and only
+ * one window of the file is mapped at a time, so memory stays flat whatever
+ * the size of the file. A partition is a byte range of the file moved forward
+ * to the next line start, so workers split the rows without reading the rest
+ * of the file.
+ *
+ * Format: a header line, then one row per line; fields may be quoted with ""
+ * for commas and quotes, but not for line breaks.
+ */
+public class MappedCsvFile implements Closeable {
+
+    private static final long WINDOW = 64L * 1024 * 1024;
+    private static final int ALIGN_BUFFER = 8192;
+
+    private final Path path;
+    private final long windowSize;
+    private final FileChannel channel;
+    private final long size;
+    private final List<String> header;
+    private final long dataStart;
+
+    public MappedCsvFile(Path path) throws IOException {
+        this(path, WINDOW);
+    }
+
+    /**
+     * Maps at most windowSize bytes at a time, which also limits the length of a row
+     */
+    MappedCsvFile(Path path, long windowSize) throws IOException {
+        this.path = path;
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        RowIterator headerReader = new RowIterator(0, size);
+        this.header = headerReader.hasNext() ? List.of(headerReader.next()) : List.of();
+        this.dataStart = headerReader.position;
+    }
+
+    public List<String> getHeader() {
+        return header;
+    }
+
+    /**
+     * Lazily parsed rows of one partition; partition 0 of 1 is the whole file
+     */
+    public Stream<String[]> rows(DataPartition partition) {
+        long start = lineStartAtOrAfter(offset(partition.getIndex(), partition.getCount()));
+        long end = lineStartAtOrAfter(offset(partition.getIndex() + 1, partition.getCount()));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new RowIterator(start, end),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private long offset(int index, int count) {
+        return index >= count ? size : dataStart + (size - dataStart) * index / count;
+    }
+
+    /**
+     * First line start at or after the offset, reading only the bytes in between
+     */
+    private long lineStartAtOrAfter(long offset) {
+        if (offset <= dataStart) {
+            return dataStart;
+        }
+        if (offset >= size) {
+            return size;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER);
+            long position = offset - 1;
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return size;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static String[] parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Walks the lines in [start, end), remapping the window as it goes
+     */
+    private class RowIterator implements Iterator<String[]> {
+        private final long end;
+        private long position;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private String[] next;
+
+        RowIterator(long start, long end) {
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && position < end) {
+                String line = readLine();
+                if (!line.isBlank()) {
+                    next = parse(line);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String[] row = next;
+            next = null;
+            return row;
+        }
+
+        private String readLine() {
+            while (true) {
+                mapWindowAt(position);
+                int from = (int) (position - windowStart);
+                int limit = window.limit();
+                for (int i = from; i < limit; i++) {
+                    if (window.get(i) == '\n') {
+                        return take(from, i, i + 1);
+                    }
+                }
+                if (windowStart + limit >= size) {
+                    // Last line without a line break
+                    return take(from, limit, limit);
+                }
+                if (from == 0) {
+                    throw new IllegalStateException("Row at byte " + position + " of " + path
+                            + " is longer than the " + windowSize + " byte window");
+                }
+                // The line runs past the window, map again from its start
+                window = null;
+            }
+        }
+
+        private String take(int from, int to, int nextLine) {
+            int length = to > from && window.get(to - 1) == '\r' ? to - from - 1 : to - from;
+            byte[] bytes = new byte[length];
+            ByteBuffer line = window.duplicate();
+            line.position(from);
+            line.get(bytes);
+            position = windowStart + nextLine;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void mapWindowAt(long offset) {
+            if (window != null && offset >= windowStart && offset < windowStart + window.limit()) {
+                return;
+            }
+            try {
+                windowStart = offset;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map " + path + " at byte " + offset, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for MappedCsvFile, no browser needed
+ */
+class MappedCsvFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsHeaderAndQuotedFields() throws IOException {
+        Path csv = write("name,comment\r\n"
+                + "plain,text\r\n"
+                + "\"Doe, John\",\"said \"\"hi\"\"\"\r\n"
+                + "\r\n"
+                + "empty,\n");
+        try (MappedCsvFile file = new MappedCsvFile(csv)) {
+            assertThat(file.getHeader()).containsExactly("name", "comment");
+            List<String[]> rows = file.rows(DataPartition.ALL).collect(Collectors.toList());
+            assertThat(rows).hasSize(3);
+            assertThat(rows.get(0)).containsExactly("plain", "text");
+            assertThat(rows.get(1)).containsExactly("Doe, John", "said \"hi\"");
+            assertThat(rows.get(2)).containsExactly("empty", "");
+        }
+    }
+
+    @Test
+    void readsLastLineWithoutLineBreak() throws IOException {
+        Path csv = write("id\n1\n2\n3");
+        try (MappedCsvFile file = new MappedCsvFile(csv, 4)) {
+            assertThat(ids(file, DataPartition.ALL)).containsExactly("1", "2", "3");
+        }
+    }
+
+    @Test
+    void readsHeaderOnlyFile() throws IOException {
+        Path csv = write("id,name");
+        try (MappedCsvFile file = new MappedCsvFile(csv)) {
+            assertThat(file.getHeader()).containsExactly("id", "name");
+            assertThat(file.rows(DataPartition.ALL).count()).isZero();
+        }
+    }
+
+    @Test
+    void partitionsCoverEveryRowExactlyOnce() throws IOException {
+        List<String> expected = new ArrayList<>();
+        StringBuilder content = new StringBuilder("id,padding\n");
+        for (int i = 0; i < 500; i++) {
+            expected.add(String.valueOf(i));
+            // Rows of different lengths so partition offsets land anywhere within a row
+            content.append(i).append(',').append("x".repeat(i % 37)).append('\n');
+        }
+        for (boolean trailingNewline : new boolean[] {true, false}) {
+            String text = trailingNewline ? content.toString() : content.substring(0, content.length() - 1);
+            Path csv = write(text);
+            for (long window : new long[] {64, 100, 4096, 1 << 20}) {
+                try (MappedCsvFile file = new MappedCsvFile(csv, window)) {
+                    for (int count = 1; count <= 9; count++) {
+                        List<String> seen = new ArrayList<>();
+                        for (int index = 0; index < count; index++) {
+                            seen.addAll(ids(file, new DataPartition(index, count)));
+                        }
+                        assertThat(seen)
+                                .as("%d partitions, %d byte window, trailing newline %s", count, window, trailingNewline)
+                                .containsExactlyElementsOf(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void partitionsOfSmallFileMayBeEmpty() throws IOException {
+        Path csv = write("id\n1\n2\n");
+        try (MappedCsvFile file = new MappedCsvFile(csv)) {
+            List<String> seen = new ArrayList<>();
+            for (int index = 0; index < 8; index++) {
+                seen.addAll(ids(file, new DataPartition(index, 8)));
+            }
+            assertThat(seen).containsExactly("1", "2");
+        }
+    }
+
+    @Test
+    void rejectsRowLongerThanWindow() throws IOException {
+        Path csv = write("id\n1\n" + "9".repeat(100) + "\n2\n");
+        try (MappedCsvFile file = new MappedCsvFile(csv, 32)) {
+            assertThatThrownBy(() -> ids(file, DataPartition.ALL))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("longer than the 32 byte window");
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path csv = Files.createTempFile(dir, "data", ".csv");
+        Files.write(csv, content.getBytes(StandardCharsets.UTF_8));
+        return csv;
+    }
+
+    private static List<String> ids(MappedCsvFile file, DataPartition partition) {
+        return file.rows(partition).map(row -> row[0]).collect(Collectors.toList());
+    }
+}
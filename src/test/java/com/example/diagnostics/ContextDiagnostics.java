@@ -0,0 +1,182 @@
+package com.example.diagnostics;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.ConsoleMessage;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.WebError;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * Last console messages, page errors and responses of a test's context (-Ddiagnostics=true)
+ *
+ * Each kind goes to its own fixed-size ring in memory, overwriting the oldest
+ * entry when full, so a passing test pays for a string per event and nothing
+ * else. The rings are written to diagnostics.dir only when the test fails or
+ * is retried. Response lines come from the response event itself (status and
+ * time to first byte), so nothing is asked of the driver.
+ */
+public class ContextDiagnostics {
+
+    private final String testName;
+    private final BrowserContext context;
+    private final long start = System.currentTimeMillis();
+    private final Ring console = new Ring(TestConfig.DIAGNOSTICS_BUFFER);
+    private final Ring errors = new Ring(TestConfig.DIAGNOSTICS_BUFFER);
+    private final Ring network = new Ring(TestConfig.DIAGNOSTICS_BUFFER);
+    private final Consumer<ConsoleMessage> onConsole = this::console;
+    private final Consumer<WebError> onError = this::error;
+    private final Consumer<Response> onResponse = this::response;
+    private final Consumer<Request> onRequestFailed = this::requestFailed;
+    private boolean attached;
+
+    private ContextDiagnostics(String testName, BrowserContext context) {
+        this.testName = testName;
+        this.context = context;
+    }
+
+    /**
+     * Starts recording the context's events for a test, or returns null when diagnostics are off
+     */
+    public static ContextDiagnostics attach(BrowserContext context, String testName) {
+        if (!TestConfig.DIAGNOSTICS) {
+            return null;
+        }
+        ContextDiagnostics diagnostics = new ContextDiagnostics(testName, context);
+        context.onConsoleMessage(diagnostics.onConsole);
+        context.onWebError(diagnostics.onError);
+        context.onResponse(diagnostics.onResponse);
+        context.onRequestFailed(diagnostics.onRequestFailed);
+        diagnostics.attached = true;
+        return diagnostics;
+    }
+
+    /**
+     * Stops recording and keeps what was recorded; needed for a context shared with later tests
+     */
+    public void detach() {
+        if (!attached) {
+            return;
+        }
+        attached = false;
+        try {
+            context.offConsoleMessage(onConsole);
+            context.offWebError(onError);
+            context.offResponse(onResponse);
+            context.offRequestFailed(onRequestFailed);
+        } catch (Exception e) {
+            // The context is gone, and its listeners with it
+        }
+    }
+
+    /**
+     * Diagnostics of the test instance in an extension context, if it recorded any
+     */
+    public static ContextDiagnostics of(ExtensionContext extensionContext) {
+        Object instance = extensionContext.getTestInstance().orElse(null);
+        for (Class<?> clazz = instance != null ? instance.getClass() : null; clazz != null; clazz = clazz.getSuperclass()) {
+            try {
+                Field field = clazz.getDeclaredField("diagnostics");
+                field.setAccessible(true);
+                return (ContextDiagnostics) field.get(instance);
+            } catch (NoSuchFieldException e) {
+                // Keep looking in the superclass
+            } catch (IllegalAccessException | ClassCastException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void console(ConsoleMessage message) {
+        console.add(elapsed(), message.type() + " " + message.text()
+                + (message.location() != null && !message.location().isEmpty() ? " (" + message.location() + ")" : ""));
+    }
+
+    private void error(WebError error) {
+        errors.add(elapsed(), error.error());
+    }
+
+    private void response(Response response) {
+        Request request = response.request();
+        network.add(elapsed(), response.status() + " " + request.method() + " " + request.url()
+                + String.format(" (%.0f ms to first byte)", request.timing().responseStart));
+    }
+
+    private void requestFailed(Request request) {
+        network.add(elapsed(), "FAILED " + request.method() + " " + request.url() + ": " + request.failure());
+    }
+
+    private long elapsed() {
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Writes the rings to the diagnostics directory and attaches the file to the test
+     */
+    public void dump(String reason) {
+        String fileName = testName.replaceAll("[^a-zA-Z0-9-_]", "_") + "_" + reason + "_"
+                + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".log";
+        Path path = Paths.get(TestConfig.DIAGNOSTICS_DIR, fileName);
+        try {
+            Files.createDirectories(path.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                out.println("Test: " + testName);
+                out.println("Reason: " + reason);
+                console.write(out, "Console messages");
+                errors.write(out, "Page errors");
+                network.write(out, "Network");
+            }
+            EventLog.publish(new Event(EventType.ARTIFACT, testName, "Diagnostics saved: " + path)
+                    .with("kind", "diagnostics")
+                    .with("path", path.toString()));
+        } catch (IOException e) {
+            EventLog.error("Failed to write diagnostics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fixed-size ring of timestamped lines, oldest overwritten first
+     */
+    private static class Ring {
+        private final long[] times;
+        private final String[] lines;
+        private long added;
+
+        Ring(int capacity) {
+            this.times = new long[Math.max(1, capacity)];
+            this.lines = new String[times.length];
+        }
+
+        synchronized void add(long time, String line) {
+            int index = (int) (added++ % lines.length);
+            times[index] = time;
+            lines[index] = line;
+        }
+
+        synchronized void write(PrintWriter out, String title) {
+            long kept = Math.min(added, lines.length);
+            out.println();
+            out.println("== " + title + " (" + added + (added > kept ? ", last " + kept + " kept" : "") + ")");
+            for (long i = added - kept; i < added; i++) {
+                int index = (int) (i % lines.length);
+                out.println(String.format("+%6d ms  %s", times[index], lines[index]));
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.dispatch;
+
+import com.example.base.BaseTest;
+import com.example.base.BrowserServer;
+import com.example.config.TestConfig;
+import com.example.daemon.WarmBrowser;
+import com.example.data.DataPartition;
+import com.example.launch.BrowserPrelaunch;
+import com.example.launch.DriverCache;
+import com.example.report.RunReports;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Playwright;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectUniqueId;
+
+/**
+ * Worker process for the TestDispatcher
+ * Pulls the next test from the dispatcher as soon as the previous one is done
+ * and streams every result back. One launcher session, one Playwright
+ * instance and one browser are kept for the whole life of the worker, so a
+ * test does not pay for starting and closing a browser, and @ReadOnly tests
+ * keep sharing their logged-in context across test classes.
+ */
+public class DispatchWorker {
+
+    private static BrowserServer browserServer;
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+             LauncherSession session = LauncherFactory.openSession()) {
+            Launcher launcher = session.getLauncher();
+            // The first request tells the dispatcher how long this JVM took to get ready
+            out.println(TestDispatcher.NEXT + "\t" + ManagementFactory.getRuntimeMXBean().getUptime());
+            // The browser finishes starting while the first test is on its way
+            try {
+                warmUp();
+            } catch (RuntimeException e) {
+                // Each test class then starts its own browser and reports the failure itself
+                System.err.println("Failed to start the worker's browser: " + e.getMessage());
+            }
+            while (true) {
+                String line = in.readLine();
+                if (line == null || line.equals(TestDispatcher.DONE)) {
+                    break;
+                }
+                String[] fields = line.split("\t");
+                String uniqueId = fields[1];
+                String test = line.substring(TestDispatcher.RUN.length() + 1);
+                if (fields.length > 2) {
+                    System.setProperty(DataPartition.PROPERTY, fields[2]);
+                } else {
+                    System.clearProperty(DataPartition.PROPERTY);
+                }
+                if (WarmBrowser.playwright() != null && !WarmBrowser.isAvailable()) {
+                    // The browser crashed during the last test, bring it back before the next one
+                    try {
+                        WarmBrowser.set(WarmBrowser.playwright(), browser(WarmBrowser.playwright(), null), true);
+                    } catch (RuntimeException e) {
+                        System.err.println("Failed to restart the worker's browser: " + e.getMessage());
+                    }
+                }
+                ResultReporter reporter = new ResultReporter(out, uniqueId);
+                launcher.execute(LauncherDiscoveryRequestBuilder.request()
+                        .selectors(selectUniqueId(uniqueId))
+                        .build(), reporter);
+                reporter.reportContainerFailure();
+                out.println(TestDispatcher.FINISHED + "\t" + test);
+                out.println(TestDispatcher.NEXT);
+            }
+        } finally {
+            RunReports.write();
+            coolDown();
+        }
+        // Playwright and JUnit may leave non-daemon threads behind
+        System.exit(0);
+    }
+
+    /**
+     * Takes the browser prelaunched while the session opened, or starts one, and keeps it for every test
+     */
+    private static void warmUp() {
+        BrowserPrelaunch.Prelaunched prelaunched = BrowserPrelaunch.take();
+        Playwright playwright;
+        if (prelaunched != null) {
+            playwright = prelaunched.getPlaywright();
+        } else {
+            DriverCache.install();
+            playwright = Playwright.create();
+        }
+        if (TestConfig.BROWSER_SERVER) {
+            browserServer = new BrowserServer(BaseTest.selectBrowserType(playwright));
+        }
+        WarmBrowser.set(playwright, browser(playwright, prelaunched), true);
+    }
+
+    private static Browser browser(Playwright playwright, BrowserPrelaunch.Prelaunched prelaunched) {
+        if (browserServer != null) {
+            // Reconnects after a server crash as well
+            return browserServer.browser();
+        }
+        if (prelaunched != null && prelaunched.getBrowser() != null) {
+            return prelaunched.getBrowser();
+        }
+        return BaseTest.selectBrowserType(playwright).launch(BaseTest.launchOptions());
+    }
+
+    private static void coolDown() {
+        Playwright playwright = WarmBrowser.playwright();
+        WarmBrowser.clear();
+        try {
+            if (browserServer != null) {
+                browserServer.disconnect();
+            }
+            if (playwright != null) {
+                playwright.close();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to close the worker's browser: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a RESULT line for every finished test
+     */
+    private static class ResultReporter implements TestExecutionListener {
+        private final PrintWriter out;
+        private final String dispatchedId;
+        private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+        private boolean testReported;
+        private String containerFailure;
+
+        ResultReporter(PrintWriter out, String dispatchedId) {
+            this.out = out;
+            this.dispatchedId = dispatchedId;
+        }
+
+        @Override
+        public void executionStarted(TestIdentifier testIdentifier) {
+            startTimes.put(testIdentifier.getUniqueId(), System.currentTimeMillis());
+        }
+
+        @Override
+        public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+            if (testIdentifier.isTest()) {
+                send(ResultAggregator.Status.SKIPPED, 0, testIdentifier, reason);
+            }
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+            String message = result.getThrowable().map(Throwable::getMessage).orElse("");
+            if (!testIdentifier.isTest()) {
+                // A failing @BeforeAll fails the class without reporting its tests
+                if (result.getStatus() != TestExecutionResult.Status.SUCCESSFUL && containerFailure == null) {
+                    containerFailure = testIdentifier.getDisplayName() + ": " + message;
+                }
+                return;
+            }
+            long duration = System.currentTimeMillis()
+                    - startTimes.getOrDefault(testIdentifier.getUniqueId(), System.currentTimeMillis());
+            ResultAggregator.Status status;
+            switch (result.getStatus()) {
+                case SUCCESSFUL:
+                    status = ResultAggregator.Status.PASSED;
+                    break;
+                case ABORTED:
+                    status = ResultAggregator.Status.ABORTED;
+                    break;
+                default:
+                    status = ResultAggregator.Status.FAILED;
+            }
+            send(status, duration, testIdentifier, message);
+        }
+
+        void reportContainerFailure() {
+            if (!testReported && containerFailure != null) {
+                out.println(String.join("\t", TestDispatcher.RESULT, ResultAggregator.Status.FAILED.name(), "0",
+                        dispatchedId, "", TestDispatcher.escape(containerFailure)));
+            }
+        }
+
+        private void send(ResultAggregator.Status status, long duration, TestIdentifier testIdentifier, String message) {
+            testReported = true;
+            out.println(String.join("\t", TestDispatcher.RESULT, status.name(), String.valueOf(duration),
+                    testIdentifier.getUniqueId(), TestDispatcher.escape(testIdentifier.getDisplayName()),
+                    TestDispatcher.escape(message)));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.dispatch;
+
+/**
+ * Collects the results streamed back by all dispatch workers
+ * Mirrors the TestListener output so dispatched runs read like regular runs.
+ */
+public class ResultAggregator {
+
+    public enum Status { PASSED, FAILED, ABORTED, SKIPPED }
+
+    private final int dispatchedTests;
+    private final long startTime = System.currentTimeMillis();
+    private int finishedTests = 0;
+    private int totalTests = 0;
+    private int passedTests = 0;
+    private int failedTests = 0;
+    private int skippedTests = 0;
+    private int quarantinedPassed = 0;
+    private int quarantinedFailed = 0;
+
+    public ResultAggregator(int dispatchedTests) {
+        this.dispatchedTests = dispatchedTests;
+    }
+
+    public synchronized void record(Status status, long durationMillis, String uniqueId, String displayName, String message) {
+        totalTests++;
+        switch (status) {
+            case PASSED:
+                passedTests++;
+                System.out.println("✓ PASSED: " + displayName + " (" + durationMillis + " ms)");
+                break;
+            case FAILED:
+                failedTests++;
+                System.err.println("✗ FAILED: " + displayName + " (" + durationMillis + " ms)");
+                System.err.println("  Reason: " + message);
+                break;
+            case ABORTED:
+                skippedTests++;
+                System.out.println("⊘ ABORTED: " + displayName);
+                break;
+            case SKIPPED:
+                skippedTests++;
+                System.out.println("⊗ DISABLED: " + displayName + (message.isEmpty() ? "" : " - " + message));
+                break;
+        }
+    }
+
+    /**
+     * Records the final result of a quarantined test; its failures do not fail the run
+     */
+    public synchronized void recordQuarantined(Status status, long durationMillis, String uniqueId, String displayName,
+                                               String message, int attempts) {
+        String attemptInfo = attempts > 1 ? ", " + attempts + " attempts" : "";
+        switch (status) {
+            case PASSED:
+                quarantinedPassed++;
+                System.out.println("⚠ QUARANTINED PASSED: " + displayName + " (" + durationMillis + " ms" + attemptInfo + ")");
+                break;
+            case FAILED:
+                quarantinedFailed++;
+                System.out.println("⚠ QUARANTINED FAILED: " + displayName + " (" + durationMillis + " ms" + attemptInfo + ")");
+                System.out.println("  Reason: " + message);
+                break;
+            default:
+                record(status, durationMillis, uniqueId, displayName, message);
+        }
+    }
+
+    /**
+     * Marks a dispatched test method as done, including all of its invocations
+     */
+    public synchronized void finish(String uniqueId) {
+        finishedTests++;
+    }
+
+    public synchronized boolean isComplete() {
+        return finishedTests >= dispatchedTests;
+    }
+
+    public synchronized int getFinishedTests() {
+        return finishedTests;
+    }
+
+    public synchronized int getFailedTests() {
+        return failedTests;
+    }
+
+    public synchronized void printSummary() {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("DISPATCHED TEST EXECUTION SUMMARY");
+        System.out.println("=".repeat(60));
+        System.out.println("Total Tests: " + totalTests);
+        System.out.println("Passed: " + passedTests + " (" + getPercentage(passedTests, totalTests) + "%)");
+        System.out.println("Failed: " + failedTests + " (" + getPercentage(failedTests, totalTests) + "%)");
+        System.out.println("Skipped: " + skippedTests + " (" + getPercentage(skippedTests, totalTests) + "%)");
+        if (quarantinedPassed + quarantinedFailed > 0) {
+            System.out.println("Quarantined: " + quarantinedPassed + " passed, " + quarantinedFailed + " failed (not counted)");
+        }
+        System.out.println("Wall Time: " + (System.currentTimeMillis() - startTime) + " ms");
+        System.out.println("=".repeat(60) + "\n");
+    }
+
+    private String getPercentage(int value, int total) {
+        if (total == 0) return "0.00";
+        return String.format("%.2f", (value * 100.0) / total);
+    }
+}
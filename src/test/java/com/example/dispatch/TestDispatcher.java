@@ -0,0 +1,387 @@
+package com.example.dispatch;
+
+import com.example.config.TestConfig;
+import com.example.data.CsvDataSource;
+import com.example.data.DataPartition;
+import com.example.launch.BrowserPrelaunch;
+import com.example.launch.ClassDataSharing;
+import com.example.quarantine.FlakyHistory;
+import com.example.quarantine.Quarantine;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.platform.engine.discovery.ClassNameFilter.includeClassNamePatterns;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+
+/**
+ * Work-stealing test dispatcher
+ * Discovers individual test methods with the JUnit launcher and hands them out
+ * one at a time to worker processes as they free up, so a long checkout class
+ * never leaves the other workers idle. Results stream back over a local socket
+ * into a single ResultAggregator.
+ *
+ * Workers are processes rather than threads because BaseTest keeps the
+ * Playwright instance and browser in static fields.
+ *
+ * Data-driven tests (@CsvDataSource) are dispatched once per data partition,
+ * so their rows are spread over the workers like separate tests.
+ *
+ * A failed test goes back to the end of the queue for up to retries more
+ * attempts, like surefire's reruns, and only its last attempt is reported.
+ * Quarantined tests wait in their own queue that workers only take from once
+ * the main queue is empty, get quarantine.retries retries, and do not count
+ * towards the exit code. The dispatcher records every attempt in the
+ * FlakyHistory, since retries may run on different workers.
+ *
+ * When every worker has exited while tests are still queued, new workers are
+ * started for them, unless the last replacements finished no test either.
+ *
+ * Run with: mvn test -Pdefault,dispatch
+ */
+public class TestDispatcher {
+
+    // Line protocol between dispatcher and workers, fields separated by tabs
+    static final String NEXT = "NEXT";
+    static final String RUN = "RUN";
+    static final String DONE = "DONE";
+    static final String RESULT = "RESULT";
+    static final String FINISHED = "FINISHED";
+
+    private static final int MAX_ATTEMPTS = 2;
+    private static final int ACCEPT_TIMEOUT_MS = 1000;
+    private static final List<String> JVM_PROPERTY_PREFIXES = List.of(
+            "java.", "jdk.", "sun.", "os.", "user.", "file.", "line.", "path.", "native.", "stdout.", "stderr.");
+
+    private final Deque<String> queue = new ConcurrentLinkedDeque<>();
+    private final Deque<String> quarantineQueue = new ConcurrentLinkedDeque<>();
+    // Finished attempts per test, for retries of failed tests
+    private final Map<String, Integer> finishedAttempts = new ConcurrentHashMap<>();
+    // Attempts per test that lost their worker
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    private final Map<String, String> displayNames = new ConcurrentHashMap<>();
+    private final List<Process> workers = new ArrayList<>();
+    private final AtomicInteger retiring = new AtomicInteger();
+    private final WorkerAutoTuner tuner = TestConfig.WORKERS_AUTO ? new WorkerAutoTuner(TestConfig.WORKERS_MAX) : null;
+    private final ClassDataSharing classDataSharing = new ClassDataSharing(System.getProperty("java.class.path"));
+    private ResultAggregator aggregator;
+    private int finishedAtReplacement = -1;
+    private int replacementsWithoutProgress = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.exit(new TestDispatcher().run());
+    }
+
+    public int run() throws IOException {
+        // Discovery runs in this JVM but tests run in the workers
+        BrowserPrelaunch.disable();
+        if (TestConfig.REPORT_RUN.isEmpty()) {
+            // Forwarded to every worker, so the live report shows them as one run
+            System.setProperty("report.run", "dispatch-" + System.currentTimeMillis());
+        }
+        List<String> tests = discoverTests();
+        tests.forEach(test -> (isQuarantined(test) ? quarantineQueue : queue).add(test));
+        aggregator = new ResultAggregator(tests.size());
+        int initialWorkers = tuner != null ? tuner.getTarget() : TestConfig.WORKERS;
+        System.out.println("Dispatching " + tests.size() + " tests to "
+                + (tuner != null ? "auto-tuned (max " + TestConfig.WORKERS_MAX + ")" : String.valueOf(initialWorkers)) + " workers"
+                + (quarantineQueue.isEmpty() ? "" : ", " + quarantineQueue.size() + " quarantined tests last"));
+
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(ACCEPT_TIMEOUT_MS);
+            Files.createDirectories(Paths.get(TestConfig.DISPATCH_DIR));
+            for (int i = 0; i < initialWorkers && i < tests.size(); i++) {
+                startWorker(server.getLocalPort());
+            }
+
+            while (!aggregator.isComplete()) {
+                if (tuner != null) {
+                    scaleWorkers(server.getLocalPort());
+                }
+                try {
+                    Socket socket = server.accept();
+                    connections.submit(() -> serve(socket));
+                } catch (SocketTimeoutException e) {
+                    if (workers.stream().noneMatch(Process::isAlive) && !aggregator.isComplete()) {
+                        if (replaceWorkers(server.getLocalPort(), initialWorkers)) {
+                            continue;
+                        }
+                        // Every worker is gone and replacing them did not help, report whatever never ran
+                        String id;
+                        while ((id = nextTest()) != null) {
+                            recordFailure(id, "No worker left to run the test");
+                        }
+                        break;
+                    }
+                }
+            }
+        } finally {
+            connections.shutdownNow();
+            if (aggregator.isComplete()) {
+                // Workers exit on their own once told DONE, the training worker writes its class list on exit
+                classDataSharing.finish(workers);
+            }
+            workers.forEach(Process::destroy);
+        }
+
+        aggregator.printSummary();
+        if (tuner != null) {
+            tuner.report();
+        }
+        return aggregator.getFailedTests() > 0 ? 1 : 0;
+    }
+
+    /**
+     * Discovers test methods using the same class name patterns as surefire
+     */
+    private List<String> discoverTests() {
+        TestPlan plan = LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectPackage(TestConfig.DISPATCH_PACKAGE))
+                .filters(includeClassNamePatterns(".*Test", ".*Tests"))
+                .build());
+        List<String> tests = new ArrayList<>();
+        for (TestIdentifier root : plan.getRoots()) {
+            // Method level ids, so parameterized and repeated tests are dispatched as one unit
+            plan.getDescendants(root).stream()
+                    .filter(id -> id.getSource().filter(source -> source instanceof MethodSource).isPresent())
+                    .filter(id -> plan.getParent(id).flatMap(TestIdentifier::getSource)
+                            .filter(source -> source instanceof MethodSource).isEmpty())
+                    .forEach(id -> {
+                        displayNames.put(id.getUniqueId(), id.getDisplayName());
+                        if (isDataDriven(id)) {
+                            for (int i = 0; i < TestConfig.DATA_PARTITIONS; i++) {
+                                tests.add(id.getUniqueId() + "\t" + new DataPartition(i, TestConfig.DATA_PARTITIONS));
+                            }
+                        } else {
+                            tests.add(id.getUniqueId());
+                        }
+                    });
+        }
+        return tests;
+    }
+
+    private static boolean isDataDriven(TestIdentifier id) {
+        return id.getSource()
+                .map(source -> ((MethodSource) source).getJavaMethod().isAnnotationPresent(CsvDataSource.class))
+                .orElse(false);
+    }
+
+    /**
+     * Starts or retires workers to follow the auto tuner's target
+     */
+    private void scaleWorkers(int port) throws IOException {
+        List<Process> live = workers.stream().filter(Process::isAlive).collect(Collectors.toList());
+        tuner.sample(live, aggregator.getFinishedTests());
+        int target = tuner.getTarget();
+        if (target > live.size()) {
+            retiring.set(0);
+            for (int i = live.size(); i < target && i < live.size() + queue.size() + quarantineQueue.size(); i++) {
+                startWorker(port);
+            }
+        } else {
+            // Surplus workers are told they are done the next time they ask for a test
+            retiring.set(live.size() - target);
+        }
+    }
+
+    /**
+     * Starts new workers for the queued tests after every worker has exited
+     * Gives up after MAX_ATTEMPTS replacements in a row that finished no test,
+     * e.g. when workers cannot start at all.
+     */
+    private boolean replaceWorkers(int port, int count) throws IOException {
+        int queued = queue.size() + quarantineQueue.size();
+        int finished = aggregator.getFinishedTests();
+        if (finished != finishedAtReplacement) {
+            finishedAtReplacement = finished;
+            replacementsWithoutProgress = 0;
+        }
+        if (queued == 0 || replacementsWithoutProgress >= MAX_ATTEMPTS) {
+            return false;
+        }
+        replacementsWithoutProgress++;
+        int replacements = Math.min(tuner != null ? tuner.getTarget() : count, queued);
+        System.out.println("Every worker has exited, starting " + replacements + " new workers for " + queued + " queued tests");
+        retiring.set(0);
+        for (int i = 0; i < replacements; i++) {
+            startWorker(port);
+        }
+        return true;
+    }
+
+    private void startWorker(int port) throws IOException {
+        int workerId = workers.size();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(forwardedSystemProperties());
+        command.add("-Ddispatch.worker=" + workerId);
+        command.addAll(classDataSharing.workerJvmOptions());
+        command.add("-classpath");
+        command.add(classDataSharing.workerClassPath());
+        command.add(DispatchWorker.class.getName());
+        command.add(String.valueOf(port));
+
+        Path log = Paths.get(TestConfig.DISPATCH_DIR, "worker-" + workerId + ".log");
+        workers.add(new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start());
+    }
+
+    private List<String> forwardedSystemProperties() {
+        return System.getProperties().stringPropertyNames().stream()
+                .filter(key -> JVM_PROPERTY_PREFIXES.stream().noneMatch(key::startsWith))
+                .map(key -> "-D" + key + "=" + System.getProperty(key))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isQuarantined(String test) {
+        // Partitioned tests are queued as "uniqueId<TAB>partition"
+        return TestConfig.QUARANTINE && Quarantine.isQuarantined(test.split("\t")[0]);
+    }
+
+    private String nextTest() {
+        String test = queue.poll();
+        // Quarantined tests only get workers the main lane no longer needs
+        return test != null ? test : quarantineQueue.poll();
+    }
+
+    private void recordFailure(String test, String message) {
+        if (isQuarantined(test)) {
+            aggregator.recordQuarantined(ResultAggregator.Status.FAILED, 0, test, displayName(test), message,
+                    finishedAttempts.getOrDefault(test, 0) + 1);
+        } else {
+            aggregator.record(ResultAggregator.Status.FAILED, 0, test, displayName(test), message);
+        }
+        aggregator.finish(test);
+    }
+
+    /**
+     * Retries a failed test within its lane's budget, otherwise reports its results
+     */
+    private void finishTest(String test, List<String[]> results) {
+        boolean quarantined = isQuarantined(test);
+        boolean failed = results.stream().anyMatch(fields -> ResultAggregator.Status.FAILED.name().equals(fields[1]));
+        int attempt = finishedAttempts.merge(test, 1, Integer::sum);
+        if (failed && attempt <= (quarantined ? TestConfig.QUARANTINE_RETRIES : TestConfig.MAX_RETRIES)) {
+            System.out.println("↻ RETRYING" + (quarantined ? " quarantined" : "") + ": " + displayName(test)
+                    + " (attempt " + (attempt + 1) + ")");
+            (quarantined ? quarantineQueue : queue).add(test);
+            return;
+        }
+        for (String[] fields : results) {
+            String name = fields[4].isEmpty() ? displayName(fields[3]) : fields[4];
+            ResultAggregator.Status status = ResultAggregator.Status.valueOf(fields[1]);
+            if (quarantined) {
+                aggregator.recordQuarantined(status, Long.parseLong(fields[2]), fields[3], name, fields[5], attempt);
+            } else {
+                aggregator.record(status, Long.parseLong(fields[2]), fields[3], name, fields[5]);
+            }
+        }
+        aggregator.finish(test);
+    }
+
+    /**
+     * Serves one worker connection until the queue is drained or the worker exits
+     */
+    private void serve(Socket socket) {
+        String inFlight = null;
+        List<String[]> results = new ArrayList<>();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                switch (fields[0]) {
+                    case NEXT:
+                        if (fields.length > 1) {
+                            // First request of a worker carries its JVM uptime
+                            classDataSharing.recordStartup(Long.parseLong(fields[1]));
+                        }
+                        if (retiring.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            out.println(DONE);
+                            break;
+                        }
+                        inFlight = nextTest();
+                        results.clear();
+                        out.println(inFlight == null ? DONE : RUN + "\t" + inFlight);
+                        break;
+                    case RESULT:
+                        ResultAggregator.Status status = ResultAggregator.Status.valueOf(fields[1]);
+                        if (TestConfig.QUARANTINE && inFlight != null
+                                && (status == ResultAggregator.Status.PASSED || status == ResultAggregator.Status.FAILED)) {
+                            FlakyHistory.attempt(Quarantine.testId(inFlight.split("\t")[0]), inFlight + "\t" + fields[3],
+                                    status == ResultAggregator.Status.PASSED);
+                        }
+                        if (inFlight != null) {
+                            // Held back until it is known whether the test gets another attempt
+                            results.add(fields);
+                            break;
+                        }
+                        String name = fields[4].isEmpty() ? displayName(fields[3]) : fields[4];
+                        aggregator.record(status, Long.parseLong(fields[2]), fields[3], name, fields[5]);
+                        break;
+                    case FINISHED:
+                        if (inFlight != null) {
+                            finishTest(inFlight, new ArrayList<>(results));
+                        } else {
+                            aggregator.finish(fields[1]);
+                        }
+                        inFlight = null;
+                        break;
+                    default:
+                        System.err.println("Unknown message from worker: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Lost connection to worker: " + e.getMessage());
+        }
+
+        if (inFlight != null) {
+            // The worker died mid-test, give the test one more chance on another worker
+            if (attempts.merge(inFlight, 1, Integer::sum) < MAX_ATTEMPTS) {
+                (isQuarantined(inFlight) ? quarantineQueue : queue).addFirst(inFlight);
+            } else {
+                recordFailure(inFlight, "Worker exited while running the test");
+            }
+        }
+    }
+
+    private String displayName(String test) {
+        // Partitioned tests are queued as "uniqueId<TAB>partition"
+        String uniqueId = test.split("\t")[0];
+        return displayNames.getOrDefault(uniqueId, uniqueId);
+    }
+
+    static String escape(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
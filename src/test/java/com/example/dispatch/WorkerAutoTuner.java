@@ -0,0 +1,165 @@
+package com.example.dispatch;
+
+import com.example.config.TestConfig;
+import com.example.metrics.ProcessMetrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses the number of dispatch workers from what the host can take (-Dworkers=auto)
+ *
+ * Calibration: one worker runs the first tests while its process tree (JVM,
+ * driver, browser) is sampled for CPU and resident memory, and lasts until
+ * at least one CPU reading between two samples was taken. That cost per
+ * worker, which is the cost of one browser context, gives the starting target.
+ *
+ * Run: host load and free memory are sampled every interval. The target drops
+ * when the host is overloaded or short of memory, and climbs one worker at a
+ * time while throughput keeps improving.
+ */
+public class WorkerAutoTuner {
+
+    private static final int CALIBRATION_TESTS = 2;
+    private static final double TARGET_CPU_UTILIZATION = 0.8;
+    private static final double MEMORY_HEADROOM = 0.8;
+    private static final double OVERLOAD = 1.0;
+    private static final double MIN_THROUGHPUT_GAIN = 1.05;
+    private static final int HOLD_INTERVALS = 3;
+
+    private final int maxWorkers;
+    private final long startTime = System.currentTimeMillis();
+    private final Map<Long, ProcessMetrics.TreeSample> lastSamples = new HashMap<>();
+    private final List<String> curve = new ArrayList<>();
+
+    private boolean calibrating = true;
+    private boolean cpuMeasured;
+    private int target = 1;
+    private double coresPerWorker;
+    private long rssPerWorker;
+    private long lastSampleTime = startTime;
+    private int lastFinishedTests;
+    private double lastThroughput;
+    private int lastTarget;
+    private int hold;
+
+    public WorkerAutoTuner(int maxWorkers) {
+        this.maxWorkers = Math.max(1, maxWorkers);
+    }
+
+    public synchronized int getTarget() {
+        return target;
+    }
+
+    /**
+     * Samples the live workers and the host, at most once per interval, and adjusts the target
+     */
+    public synchronized void sample(List<Process> liveWorkers, int finishedTests) {
+        long now = System.currentTimeMillis();
+        if (now - lastSampleTime < TestConfig.WORKERS_AUTO_INTERVAL_MS || liveWorkers.isEmpty()) {
+            return;
+        }
+
+        double cores = 0;
+        int measured = 0;
+        long rss = 0;
+        for (Process worker : liveWorkers) {
+            ProcessMetrics.TreeSample sample = ProcessMetrics.sampleTree(worker.toHandle());
+            ProcessMetrics.TreeSample previous = lastSamples.put(worker.pid(), sample);
+            // CPU use needs two samples, a worker sampled for the first time has none yet
+            if (previous != null) {
+                cores += sample.coresUsedSince(previous);
+                measured++;
+            }
+            rss += sample.getRssBytes();
+        }
+        // Let readings decay slowly so one idle interval does not undercount a worker
+        if (measured > 0) {
+            coresPerWorker = Math.max(coresPerWorker * 0.5, cores / measured);
+            cpuMeasured = true;
+        }
+        rssPerWorker = Math.max(rssPerWorker / 2, rss / liveWorkers.size());
+
+        double load = ProcessMetrics.normalizedLoad();
+        long memoryAvailable = ProcessMetrics.memoryAvailable();
+        double throughput = (finishedTests - lastFinishedTests) * 60000.0 / (now - lastSampleTime);
+
+        if (calibrating) {
+            // Without a CPU reading the target would only be bounded by memory
+            if (finishedTests >= CALIBRATION_TESTS && cpuMeasured) {
+                calibrating = false;
+                target = calibratedTarget(liveWorkers.size(), memoryAvailable);
+                System.out.println(String.format("Auto workers calibrated: %.2f cores and %d MB per worker, starting with %d workers",
+                        coresPerWorker, rssPerWorker / (1024 * 1024), target));
+            }
+        } else {
+            adjust(load, memoryAvailable, throughput);
+        }
+
+        curve.add(String.format("%d,%d,%d,%.2f,%d,%.2f,%d,%.1f",
+                (now - startTime) / 1000, liveWorkers.size(), target, load,
+                memoryAvailable / (1024 * 1024), coresPerWorker, rssPerWorker / (1024 * 1024), throughput));
+        lastSampleTime = now;
+        lastFinishedTests = finishedTests;
+    }
+
+    private int calibratedTarget(int liveWorkers, long memoryAvailable) {
+        int byCpu = coresPerWorker > 0
+                ? (int) (ProcessMetrics.cores() * TARGET_CPU_UTILIZATION / coresPerWorker)
+                : maxWorkers;
+        // Memory of the running workers is already taken out of MemAvailable
+        int byMemory = memoryAvailable > 0 && rssPerWorker > 0
+                ? liveWorkers + (int) (memoryAvailable * MEMORY_HEADROOM / rssPerWorker)
+                : maxWorkers;
+        return clamp(Math.min(byCpu, byMemory));
+    }
+
+    private void adjust(double load, long memoryAvailable, double throughput) {
+        boolean overloaded = load > OVERLOAD;
+        boolean shortOfMemory = memoryAvailable >= 0 && memoryAvailable < rssPerWorker;
+        if (overloaded || shortOfMemory) {
+            target = clamp(target - 1);
+        } else if (target > lastTarget && throughput < lastThroughput * MIN_THROUGHPUT_GAIN) {
+            // The last step up did not pay off, go back and stay there for a while
+            target = clamp(lastTarget);
+            hold = HOLD_INTERVALS;
+        } else if (hold > 0) {
+            hold--;
+        } else if (load >= 0 && load < TARGET_CPU_UTILIZATION && memoryAvailable > 2 * rssPerWorker) {
+            lastTarget = target;
+            lastThroughput = throughput;
+            target = clamp(target + 1);
+            return;
+        }
+        lastTarget = target;
+        lastThroughput = throughput;
+    }
+
+    private int clamp(int workers) {
+        return Math.max(1, Math.min(maxWorkers, workers));
+    }
+
+    /**
+     * Prints the chosen worker count and writes the load curve as CSV
+     */
+    public synchronized void report() {
+        System.out.println(String.format("Auto workers: finished with a target of %d workers (max %d, %d cores)",
+                target, maxWorkers, ProcessMetrics.cores()));
+        Path csv = Paths.get(TestConfig.DISPATCH_DIR, "auto-workers.csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+            out.println("seconds,live_workers,target,normalized_load,mem_available_mb,cores_per_worker,rss_per_worker_mb,tests_per_minute");
+            curve.forEach(out::println);
+            System.out.println("Auto workers load curve saved: " + csv);
+        } catch (IOException e) {
+            System.err.println("Failed to write auto workers load curve: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.events;
+
+import java.io.PrintStream;
+
+/**
+ * Renders events as the familiar console lines, e.g. "✓ PASSED: Test logout functionality (812 ms)"
+ */
+public class ConsoleRenderer implements EventSink {
+
+    private final PrintStream out = System.out;
+    private final PrintStream err = System.err;
+
+    @Override
+    public void accept(Event event) {
+        String test = event.getTest();
+        String message = event.getMessage();
+        Object duration = event.getAttribute("durationMs");
+        String timing = duration != null ? " (" + duration + " ms)" : "";
+        switch (event.getType()) {
+            case RUN_STARTED:
+            case RUN_FINISHED:
+            case TEST_STARTED:
+            case RESOURCES:
+                break;
+            case TEST_PASSED:
+                out.println("✓ PASSED: " + test + timing);
+                break;
+            case TEST_FAILED:
+                err.println("✗ FAILED: " + test + timing);
+                err.println("  Reason: " + message);
+                break;
+            case TEST_ABORTED:
+                out.println("⊘ ABORTED: " + test);
+                break;
+            case TEST_DISABLED:
+                out.println("⊗ DISABLED: " + test + (message != null ? " - " + message : ""));
+                break;
+            case SUMMARY:
+                renderSummary(event);
+                break;
+            case WARNING:
+            case ERROR:
+                err.println(message);
+                break;
+            default:
+                out.println(message);
+        }
+    }
+
+    private void renderSummary(Event event) {
+        int total = ((Number) event.getAttribute("total")).intValue();
+        out.println("\n" + "=".repeat(60));
+        out.println(event.getMessage());
+        out.println("=".repeat(60));
+        out.println("Total Tests: " + total);
+        for (String outcome : new String[] {"passed", "failed", "skipped"}) {
+            int value = ((Number) event.getAttribute(outcome)).intValue();
+            out.println(Character.toUpperCase(outcome.charAt(0)) + outcome.substring(1) + ": " + value
+                    + " (" + percentage(value, total) + "%)");
+        }
+        event.getAttributes().forEach((key, value) -> {
+            if (!key.equals("total") && !key.equals("passed") && !key.equals("failed") && !key.equals("skipped")) {
+                out.println(key + ": " + value);
+            }
+        });
+        out.println("=".repeat(60) + "\n");
+    }
+
+    private static String percentage(int value, int total) {
+        if (total == 0) return "0.00";
+        return String.format("%.2f", (value * 100.0) / total);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+        err.flush();
+    }
+}
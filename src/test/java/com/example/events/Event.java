@@ -0,0 +1,64 @@
+package com.example.events;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One structured event: what happened, to which test, and any extra attributes
+ * Attributes are added before the event is published and never changed after.
+ */
+public class Event {
+
+    private final long timestamp = System.currentTimeMillis();
+    private final String thread = Thread.currentThread().getName();
+    private final EventType type;
+    private final String test;
+    private final String message;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    public Event(EventType type, String test, String message) {
+        this.type = type;
+        this.test = test;
+        this.message = message;
+    }
+
+    /**
+     * Adds an attribute, e.g. durationMs, path or attempt
+     */
+    public Event with(String key, Object value) {
+        attributes.put(key, value);
+        return this;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * Display name of the test the event belongs to, or null for events outside a test
+     */
+    public String getTest() {
+        return test;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public Object getAttribute(String key) {
+        return attributes.get(key);
+    }
+}
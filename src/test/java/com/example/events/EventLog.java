@@ -0,0 +1,154 @@
+package com.example.events;
+
+import com.example.config.TestConfig;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured event log
+ *
+ * Test threads publish events into a lock-free ring buffer and return at once;
+ * one background thread drains the buffer into the sinks: the console renderer
+ * and target/events.ndjson by default. Output no longer interleaves between
+ * parallel tests and test threads never wait on the console lock. Reports read
+ * the NDJSON file, or subscribe a sink, instead of keeping their own records.
+ */
+public final class EventLog {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+    private static final EventLog INSTANCE = new EventLog();
+
+    private final EventRingBuffer buffer = new EventRingBuffer(TestConfig.EVENTS_BUFFER);
+    private final List<EventSink> sinks = new CopyOnWriteArrayList<>();
+    // Held while consuming, so there is only ever one consumer even while closing
+    private final Object consumerLock = new Object();
+    private final AtomicLong published = new AtomicLong();
+    private final Thread drainThread;
+    private volatile long drained;
+    private volatile boolean closed;
+
+    private EventLog() {
+        if (TestConfig.EVENTS_CONSOLE) {
+            sinks.add(new ConsoleRenderer());
+        }
+        if (!TestConfig.EVENTS_FILE.isEmpty()) {
+            sinks.add(new NdjsonSink(TestConfig.EVENTS_FILE));
+        }
+        drainThread = new Thread(this::drainLoop, "event-log");
+        drainThread.setDaemon(true);
+        drainThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "event-log-close"));
+    }
+
+    public static void publish(Event event) {
+        INSTANCE.offer(event);
+    }
+
+    public static void info(String message) {
+        publish(new Event(EventType.INFO, null, message));
+    }
+
+    public static void warning(String message) {
+        publish(new Event(EventType.WARNING, null, message));
+    }
+
+    public static void error(String message) {
+        publish(new Event(EventType.ERROR, null, message));
+    }
+
+    /**
+     * Adds a sink that receives every event published from now on
+     */
+    public static void subscribe(EventSink sink) {
+        INSTANCE.sinks.add(sink);
+    }
+
+    public static void unsubscribe(EventSink sink) {
+        INSTANCE.sinks.remove(sink);
+        sink.close();
+    }
+
+    /**
+     * Waits until every event published so far has reached the sinks
+     */
+    public static void flush() {
+        INSTANCE.awaitDrained(INSTANCE.published.get());
+    }
+
+    private void offer(Event event) {
+        published.incrementAndGet();
+        while (!buffer.offer(event)) {
+            if (closed || Thread.currentThread() == drainThread) {
+                // Nobody will drain the buffer, so make room here
+                drainAvailable();
+                continue;
+            }
+            // Full: wake the drain thread and back off briefly
+            LockSupport.unpark(drainThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        if (closed) {
+            drainAvailable();
+        }
+    }
+
+    private void drainLoop() {
+        while (!closed) {
+            if (drainAvailable() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drainAvailable() {
+        synchronized (consumerLock) {
+            int count = 0;
+            Event event;
+            while ((event = buffer.poll()) != null) {
+                for (EventSink sink : sinks) {
+                    try {
+                        sink.accept(event);
+                    } catch (RuntimeException e) {
+                        // A broken sink must not stop the others
+                    }
+                }
+                count++;
+            }
+            if (count > 0) {
+                sinks.forEach(EventSink::flush);
+                drained += count;
+            }
+            return count;
+        }
+    }
+
+    private void awaitDrained(long target) {
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MS;
+        while (drained < target && System.currentTimeMillis() < deadline) {
+            if (closed || Thread.currentThread() == drainThread) {
+                drainAvailable();
+            } else {
+                LockSupport.unpark(drainThread);
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void close() {
+        closed = true;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainAvailable();
+        sinks.forEach(EventSink::flush);
+    }
+}
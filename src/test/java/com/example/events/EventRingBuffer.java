@@ -0,0 +1,71 @@
+package com.example.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer
+ *
+ * Each slot carries a sequence number. A producer claims the next slot by
+ * moving the tail with a CAS once the slot's sequence says it is free, writes
+ * the event and then publishes it by advancing the sequence. The consumer
+ * takes a slot once its sequence shows it was published and hands it back to
+ * the producers one lap later. No thread ever blocks another.
+ */
+class EventRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer thread
+    private long head;
+
+    EventRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the event, or returns false when the buffer is full
+     */
+    boolean offer(Event event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // The consumer has not freed this slot yet
+                return false;
+            }
+            // Another producer claimed the slot first, try the next one
+        }
+    }
+
+    /**
+     * Takes the oldest published event, or null when there is none; consumer thread only
+     */
+    Event poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        Event event = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return event;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the lock-free event ring buffer, no browser needed
+ */
+class EventRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 50_000;
+
+    @Test
+    void pollsInOfferOrder() {
+        EventRingBuffer buffer = new EventRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertThat(buffer.offer(event(0, i))).isTrue();
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(buffer.poll().getAttributes()).containsEntry("sequence", i);
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void rejectsOffersWhenFullUntilPolled() {
+        EventRingBuffer buffer = new EventRingBuffer(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(event(0, i))).isTrue();
+        }
+        assertThat(buffer.offer(event(0, 8))).isFalse();
+
+        assertThat(buffer.poll().getAttributes()).containsEntry("sequence", 0);
+        assertThat(buffer.offer(event(0, 8))).isTrue();
+        assertThat(buffer.offer(event(0, 9))).isFalse();
+        for (int i = 1; i <= 8; i++) {
+            assertThat(buffer.poll().getAttributes()).containsEntry("sequence", i);
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        EventRingBuffer buffer = new EventRingBuffer(5);
+        int accepted = 0;
+        while (buffer.offer(event(0, accepted))) {
+            accepted++;
+        }
+        assertThat(accepted).isEqualTo(8);
+    }
+
+    @Test
+    void wrapsAroundManyLaps() {
+        EventRingBuffer buffer = new EventRingBuffer(4);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(buffer.offer(event(0, i))).isTrue();
+            assertThat(buffer.offer(event(0, i + 1_000_000))).isTrue();
+            assertThat(buffer.poll().getAttributes()).containsEntry("sequence", i);
+            assertThat(buffer.poll().getAttributes()).containsEntry("sequence", i + 1_000_000);
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void concurrentProducersDeliverEveryEventOnceInPerProducerOrder() throws Exception {
+        // Small capacity so producers keep running into a full buffer and retry
+        EventRingBuffer buffer = new EventRingBuffer(64);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producerResults = new ArrayList<>();
+        try {
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                int id = producer;
+                producerResults.add(producers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        Event event = event(id, i);
+                        while (!buffer.offer(event)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            // This thread is the single consumer
+            int[] nextSequence = new int[PRODUCERS];
+            int received = 0;
+            while (received < PRODUCERS * EVENTS_PER_PRODUCER) {
+                Event event = buffer.poll();
+                if (event == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int producer = (Integer) event.getAttributes().get("producer");
+                int sequence = (Integer) event.getAttributes().get("sequence");
+                assertThat(sequence).as("event order of producer %d", producer).isEqualTo(nextSequence[producer]);
+                nextSequence[producer]++;
+                received++;
+            }
+            assertThat(buffer.poll()).isNull();
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                assertThat(nextSequence[producer]).isEqualTo(EVENTS_PER_PRODUCER);
+            }
+            for (Future<?> producer : producerResults) {
+                // Rethrows anything that went wrong in a producer
+                producer.get();
+            }
+        } finally {
+            producers.shutdownNow();
+        }
+    }
+
+    private static Event event(int producer, int sequence) {
+        return new Event(EventType.INFO, null, "event")
+                .with("producer", producer)
+                .with("sequence", sequence);
+    }
+}
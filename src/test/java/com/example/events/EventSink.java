@@ -0,0 +1,19 @@
+package com.example.events;
+
+/**
+ * Receives every event on the event log's drain thread, in publishing order per thread
+ */
+public interface EventSink {
+
+    void accept(Event event);
+
+    /**
+     * Called when the drain thread has caught up, a good time to flush buffered output
+     */
+    default void flush() {
+    }
+
+    default void close() {
+        flush();
+    }
+}
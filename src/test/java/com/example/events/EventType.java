@@ -0,0 +1,21 @@
+package com.example.events;
+
+/**
+ * Kinds of events in the event log
+ */
+public enum EventType {
+    RUN_STARTED,
+    RUN_FINISHED,
+    TEST_STARTED,
+    TEST_PASSED,
+    TEST_FAILED,
+    TEST_ABORTED,
+    TEST_DISABLED,
+    TEST_RETRY,
+    ARTIFACT,
+    RESOURCES,
+    SUMMARY,
+    INFO,
+    WARNING,
+    ERROR
+}
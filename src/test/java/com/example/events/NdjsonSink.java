@@ -0,0 +1,143 @@
+package com.example.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Appends events as one JSON object per line
+ * Each batch is written with a single append, so forks sharing the file do not split each other's lines.
+ */
+public class NdjsonSink implements EventSink {
+
+    private static final long PID = ProcessHandle.current().pid();
+
+    private final Path file;
+    private final StringBuilder batch = new StringBuilder();
+    private FileChannel channel;
+    private boolean failed;
+
+    public NdjsonSink(String file) {
+        this.file = Paths.get(file);
+    }
+
+    @Override
+    public void accept(Event event) {
+        batch.append(toJson(event)).append('\n');
+    }
+
+    @Override
+    public void flush() {
+        if (batch.length() == 0 || failed) {
+            batch.setLength(0);
+            return;
+        }
+        try {
+            if (channel == null) {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            // Reported once, straight to stderr: the event log cannot log its own failure
+            failed = true;
+            System.err.println("Failed to write event log " + file + ": " + e.getMessage());
+        }
+        batch.setLength(0);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Everything is written already
+            }
+        }
+    }
+
+    /**
+     * Serializes an event, e.g. {"ts":1700000000000,"pid":42,"thread":"main","type":"TEST_PASSED",...}
+     */
+    public static String toJson(Event event) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"ts\":").append(event.getTimestamp())
+                .append(",\"pid\":").append(PID)
+                .append(",\"thread\":").append(quote(event.getThread()))
+                .append(",\"type\":").append(quote(event.getType().name()));
+        if (event.getTest() != null) {
+            json.append(",\"test\":").append(quote(event.getTest()));
+        }
+        if (event.getMessage() != null) {
+            json.append(",\"message\":").append(quote(event.getMessage()));
+        }
+        if (!event.getAttributes().isEmpty()) {
+            json.append(",\"data\":{");
+            boolean first = true;
+            for (Map.Entry<String, Object> attribute : event.getAttributes().entrySet()) {
+                json.append(first ? "" : ",").append(quote(attribute.getKey())).append(':').append(value(attribute.getValue()));
+                first = false;
+            }
+            json.append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    private static String value(Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof Iterable) {
+            StringBuilder array = new StringBuilder("[");
+            for (Object item : (Iterable<?>) value) {
+                array.append(array.length() > 1 ? "," : "").append(value(item));
+            }
+            return array.append(']').toString();
+        }
+        return value == null ? "null" : quote(value.toString());
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.impact;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Works out which page object methods and selectors changed since a git ref (-Dimpact.since=<ref>)
+ * and which tests the impact index says are affected.
+ *
+ * - changed page object lines map to the enclosing method, or to "Class#*" in a constructor or outside any method
+ * - string literals on changed page object lines are treated as changed selectors
+ * - a changed test class runs all of its tests
+ * - any other changed source or the pom runs everything, since its effect cannot be traced
+ * - new files git does not track yet count as changed, a new page object as "Class#*"
+ * - tests missing from the index always run
+ */
+public class ImpactAnalysis {
+
+    private static final String PAGES_DIR = "src/main/java/com/example/pages/";
+    private static final String TESTS_DIR = "src/test/java/";
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern DECLARATION = Pattern.compile(
+            "^\\s*(?:public|protected|private)\\s+(?:static\\s+)?(?:final\\s+)?(?:[\\w<>\\[\\],.? ]+\\s+)?(\\w+)\\s*\\(");
+
+    private static ImpactAnalysis instance;
+
+    private final String since;
+    private final Set<String> changedMethods = new HashSet<>();
+    private final Set<String> changedSelectors = new HashSet<>();
+    private final Set<String> changedTestClasses = new HashSet<>();
+    private final Map<String, ImpactIndex.Entry> index;
+    private boolean runEverything = false;
+
+    private ImpactAnalysis(String since) {
+        this.since = since;
+        this.index = ImpactIndex.load();
+    }
+
+    /**
+     * Analyses the working tree against the configured ref, once per JVM
+     */
+    public static synchronized ImpactAnalysis get() {
+        if (instance == null) {
+            instance = new ImpactAnalysis(TestConfig.IMPACT_SINCE);
+            instance.analyse();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns why the test has to run, or null if nothing it touches changed
+     */
+    public String reasonToRun(String testId) {
+        if (runEverything) {
+            return "changes since " + since + " cannot be traced to tests";
+        }
+        String testClass = testId.substring(0, testId.indexOf('#'));
+        if (changedTestClasses.contains(testClass)) {
+            return "test class changed";
+        }
+        ImpactIndex.Entry entry = index.get(testId);
+        if (entry == null) {
+            return "not in the impact index";
+        }
+        for (String method : entry.methods) {
+            String wildcard = method.substring(0, method.indexOf('#')) + "#*";
+            if (changedMethods.contains(method) || changedMethods.contains(wildcard)) {
+                return "touches changed " + method;
+            }
+        }
+        for (String selector : entry.selectors) {
+            for (String changed : changedSelectors) {
+                if (selector.contains(changed)) {
+                    return "uses changed selector " + changed;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void analyse() {
+        try {
+            Map<String, List<Integer>> changedPageLines = new TreeMap<>();
+            String file = null;
+            for (String line : git("diff", "--unified=0", since, "--", "src", "pom.xml")) {
+                if (line.startsWith("diff --git ")) {
+                    file = line.substring(line.lastIndexOf(" b/") + 3);
+                    classify(file);
+                } else if (file != null && file.startsWith(PAGES_DIR)) {
+                    collectPageChange(file, line, changedPageLines);
+                }
+            }
+            changedPageLines.forEach(this::mapLinesToMethods);
+            // git diff leaves out files that were never added
+            for (String untracked : git("ls-files", "--others", "--exclude-standard", "--", "src", "pom.xml")) {
+                classify(untracked);
+                if (untracked.startsWith(PAGES_DIR) && untracked.endsWith(".java")) {
+                    changedMethods.add(untracked.substring(PAGES_DIR.length(), untracked.length() - ".java".length()) + "#*");
+                }
+            }
+            EventLog.info("Impact since " + since + ": " + changedMethods.size() + " page object methods, "
+                    + changedSelectors.size() + " selectors, " + changedTestClasses.size() + " test classes changed"
+                    + (runEverything ? ", other sources changed so everything runs" : ""));
+        } catch (IOException e) {
+            EventLog.error("Failed to analyse impact since " + since + ", running everything: " + e.getMessage());
+            runEverything = true;
+        }
+    }
+
+    private void classify(String file) {
+        if (file.startsWith(PAGES_DIR) || !(file.endsWith(".java") || file.equals("pom.xml"))) {
+            return;
+        }
+        if (file.startsWith(TESTS_DIR + "com/example/tests/")) {
+            changedTestClasses.add(file.substring(TESTS_DIR.length(), file.length() - ".java".length()).replace('/', '.'));
+        } else {
+            runEverything = true;
+        }
+    }
+
+    private void collectPageChange(String file, String line, Map<String, List<Integer>> changedPageLines) {
+        Matcher hunk = HUNK.matcher(line);
+        if (hunk.find()) {
+            // A pure deletion has no new lines, attribute it to the line it was removed after
+            int start = Integer.parseInt(hunk.group(1));
+            int count = hunk.group(2) != null ? Integer.parseInt(hunk.group(2)) : 1;
+            List<Integer> lines = changedPageLines.computeIfAbsent(file, f -> new ArrayList<>());
+            for (int i = 0; i < Math.max(count, 1); i++) {
+                lines.add(start + i);
+            }
+        } else if ((line.startsWith("+") && !line.startsWith("+++")) || (line.startsWith("-") && !line.startsWith("---"))) {
+            Matcher literal = STRING_LITERAL.matcher(line);
+            while (literal.find()) {
+                if (!literal.group(1).isBlank()) {
+                    changedSelectors.add(literal.group(1));
+                }
+            }
+        }
+    }
+
+    private void mapLinesToMethods(String file, List<Integer> lines) {
+        String className = file.substring(PAGES_DIR.length(), file.length() - ".java".length());
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) {
+            changedMethods.add(className + "#*");
+            return;
+        }
+        try {
+            List<String> source = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (int lineNumber : lines) {
+                String method = enclosingMethod(source, lineNumber);
+                boolean selectorLine = STRING_LITERAL.matcher(line(source, lineNumber)).find();
+                if (method != null && !method.equals(className)) {
+                    changedMethods.add(className + "#" + method);
+                } else if (!selectorLine) {
+                    // Constructor or outside any method, and not a selector: imports, fields, class declaration.
+                    // Constructors only build locators lazily and are never recorded, so the whole class is affected.
+                    changedMethods.add(className + "#*");
+                }
+                // Selector changes in the constructor or in field initializers are matched by selector
+            }
+        } catch (IOException e) {
+            changedMethods.add(className + "#*");
+        }
+    }
+
+    private static String enclosingMethod(List<String> source, int lineNumber) {
+        for (int i = Math.min(lineNumber, source.size()) - 1; i >= 0; i--) {
+            Matcher declaration = DECLARATION.matcher(source.get(i));
+            if (declaration.find()) {
+                return declaration.group(1);
+            }
+        }
+        return null;
+    }
+
+    private static String line(List<String> source, int lineNumber) {
+        return lineNumber >= 1 && lineNumber <= source.size() ? source.get(lineNumber - 1) : "";
+    }
+
+    private static List<String> git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).start();
+        // Warnings on stderr must not end up in the diff; read on its own so a full pipe cannot block git
+        CompletableFuture<String> errors = CompletableFuture.supplyAsync(() -> readErrors(process));
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed: " + errors.join());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+        return output;
+    }
+
+    private static String readErrors(Process process) {
+        try (InputStream errors = process.getErrorStream()) {
+            return new String(errors.readAllBytes(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+}
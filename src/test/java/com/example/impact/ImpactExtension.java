@@ -0,0 +1,25 @@
+package com.example.impact;
+
+import com.example.config.TestConfig;
+import com.example.instrumentation.PageInstrumentation;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Runs only the tests affected by changes since -Dimpact.since=<git-ref>
+ */
+public class ImpactExtension implements ExecutionCondition {
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (TestConfig.IMPACT_SINCE.isEmpty() || context.getTestMethod().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Impact selection not applicable");
+        }
+        String testId = PageInstrumentation.testId(context.getRequiredTestClass(), context.getRequiredTestMethod());
+        String reason = ImpactAnalysis.get().reasonToRun(testId);
+        return reason != null
+                ? ConditionEvaluationResult.enabled("Affected: " + reason)
+                : ConditionEvaluationResult.disabled("Not affected by changes since " + TestConfig.IMPACT_SINCE);
+    }
+}
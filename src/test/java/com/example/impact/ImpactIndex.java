@@ -0,0 +1,109 @@
+package com.example.impact;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.report.RunReports;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Index of the page object methods and selectors each test touched when it last ran
+ * Stored as tab separated lines: test id, "recorded", "method" or "selector", value.
+ * Tests recorded in this run replace their old entries when the test plan finishes;
+ * the merge runs under a file lock so parallel forks do not lose each other's entries.
+ */
+public class ImpactIndex {
+
+    static final String METHOD = "method";
+    static final String SELECTOR = "selector";
+    static final String RECORDED = "recorded";
+
+    private static final Path INDEX = Paths.get(TestConfig.IMPACT_INDEX);
+    private static final Map<String, Entry> recorded = new HashMap<>();
+    private static boolean reportRegistered = false;
+
+    private ImpactIndex() {
+    }
+
+    public static synchronized void record(String testId, Set<String> methods, Set<String> selectors) {
+        recorded.put(testId, new Entry(new TreeSet<>(methods), new TreeSet<>(selectors)));
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("impact-index", ImpactIndex::save);
+        }
+    }
+
+    /**
+     * Reads the index as stored on disk
+     */
+    public static Map<String, Entry> load() {
+        Map<String, Entry> index = new TreeMap<>();
+        if (!Files.exists(INDEX)) {
+            return index;
+        }
+        try {
+            for (String line : Files.readAllLines(INDEX, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length < 3) {
+                    continue;
+                }
+                Entry entry = index.computeIfAbsent(fields[0], id -> new Entry(new TreeSet<>(), new TreeSet<>()));
+                if (METHOD.equals(fields[1])) {
+                    entry.methods.add(fields[2]);
+                } else if (SELECTOR.equals(fields[1])) {
+                    entry.selectors.add(fields[2]);
+                }
+            }
+        } catch (IOException e) {
+            EventLog.error("Failed to read impact index: " + e.getMessage());
+        }
+        return index;
+    }
+
+    private static synchronized void save() {
+        Path lockFile = Paths.get(TestConfig.IMPACT_INDEX + ".lock");
+        try (FileChannel channel = new RandomAccessFile(lockFile.toFile(), "rw").getChannel();
+             FileLock ignored = channel.lock()) {
+            Map<String, Entry> index = load();
+            index.putAll(recorded);
+            List<String> lines = new ArrayList<>();
+            index.forEach((testId, entry) -> {
+                // Marks the test as indexed even if it touched no page object
+                lines.add(testId + "\t" + RECORDED + "\t" + "true");
+                entry.methods.forEach(method -> lines.add(testId + "\t" + METHOD + "\t" + method));
+                entry.selectors.forEach(selector -> lines.add(testId + "\t" + SELECTOR + "\t" + selector));
+            });
+            Files.write(INDEX, lines, StandardCharsets.UTF_8);
+            EventLog.info("Impact index updated for " + recorded.size() + " tests: " + INDEX);
+        } catch (IOException e) {
+            EventLog.error("Failed to write impact index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Page object methods ("CartPage#proceedToCheckout") and selectors one test touched
+     */
+    public static class Entry {
+        final Set<String> methods;
+        final Set<String> selectors;
+
+        Entry(Set<String> methods, Set<String> selectors) {
+            this.methods = methods;
+            this.selectors = selectors;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.impact;
+
+import com.example.instrumentation.PageCall;
+import com.example.instrumentation.PageCallListener;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Records which page object methods and selectors a test touches
+ */
+public class ImpactRecorder implements PageCallListener {
+
+    private final Set<String> methods = new TreeSet<>();
+    private final Set<String> selectors = new TreeSet<>();
+
+    @Override
+    public void beforeCall(PageCall call) {
+        if (call.isLazy()) {
+            // Page objects build their locators up front, only count the ones that are used
+            return;
+        }
+        // Outer frames too, a method that only delegates to another one makes no call of its own
+        methods.addAll(call.getPageObjectMethods());
+        if (call.getSelector() != null) {
+            selectors.add(call.getSelector());
+        }
+    }
+
+    @Override
+    public void testFinished(String testId) {
+        ImpactIndex.record(testId, methods, selectors);
+    }
+}
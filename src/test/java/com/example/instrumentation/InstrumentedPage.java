@@ -0,0 +1,123 @@
+package com.example.instrumentation;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Dynamic proxy around a Page, and every Locator created from it, that reports each call to listeners
+ */
+public class InstrumentedPage implements InvocationHandler {
+
+    private static final String PAGES_PACKAGE = "com.example.pages.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    // Page methods whose first String argument is a selector
+    private static final Set<String> SELECTOR_METHODS = Set.of(
+            "check", "click", "dblclick", "dispatchEvent", "dragAndDrop", "evalOnSelector", "evalOnSelectorAll",
+            "fill", "focus", "getAttribute", "hover", "innerHTML", "innerText", "inputValue", "isChecked",
+            "isDisabled", "isEditable", "isEnabled", "isHidden", "isVisible", "locator", "press",
+            "querySelector", "querySelectorAll", "selectOption", "setChecked", "setInputFiles", "tap",
+            "textContent", "type", "uncheck", "waitForSelector");
+
+    private final Object target;
+    private final String selector;
+    private final List<PageCallListener> listeners;
+
+    private InstrumentedPage(Object target, String selector, List<PageCallListener> listeners) {
+        this.target = target;
+        this.selector = selector;
+        this.listeners = listeners;
+    }
+
+    public static Page wrap(Page page, List<PageCallListener> listeners) {
+        if (listeners.isEmpty()) {
+            return page;
+        }
+        return (Page) Proxy.newProxyInstance(Page.class.getClassLoader(), new Class<?>[] {Page.class},
+                new InstrumentedPage(page, null, listeners));
+    }
+
+    /**
+     * Returns the real Page or Locator behind a proxy, for Playwright APIs that need their own implementation
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T unwrap(T object) {
+        if (object != null && Proxy.isProxyClass(object.getClass())
+                && Proxy.getInvocationHandler(object) instanceof InstrumentedPage) {
+            return (T) ((InstrumentedPage) Proxy.getInvocationHandler(object)).target;
+        }
+        return object;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeTarget(method, args);
+        }
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                args[i] = unwrap(args[i]);
+            }
+        }
+
+        String callSelector = selectorOf(method, args);
+        PageCall call = new PageCall(callingPageObjectMethods(), callSelector, method.getName(), target);
+        for (PageCallListener listener : listeners) {
+            listener.beforeCall(call);
+        }
+        long start = System.nanoTime();
+        Object result = invokeTarget(method, args);
+        long duration = System.nanoTime() - start;
+        for (PageCallListener listener : listeners) {
+            listener.afterCall(call, duration);
+        }
+
+        if (result instanceof Locator) {
+            return Proxy.newProxyInstance(Locator.class.getClassLoader(), new Class<?>[] {Locator.class},
+                    new InstrumentedPage(result, callSelector, listeners));
+        }
+        return result;
+    }
+
+    private String selectorOf(Method method, Object[] args) {
+        boolean firstArgSelector = args != null && args.length > 0 && args[0] instanceof String;
+        if (target instanceof Locator) {
+            // Chained locators (locator.locator("...")) add to the selector, nth/first/filter keep it
+            return firstArgSelector && method.getName().equals("locator")
+                    ? selector + " >> " + args[0]
+                    : selector;
+        }
+        return firstArgSelector && SELECTOR_METHODS.contains(method.getName()) ? (String) args[0] : null;
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Page object frames on the stack, innermost first, e.g. ["PageQueries#textOrDefault", "ProductsPage#getCartItemCount"]
+     * Constructors read as "LoginPage#LoginPage"; a method that calls itself is listed once.
+     */
+    private static List<String> callingPageObjectMethods() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(PAGES_PACKAGE))
+                .map(f -> {
+                    String className = f.getClassName().substring(PAGES_PACKAGE.length());
+                    String methodName = f.getMethodName().equals("<init>") ? className : f.getMethodName();
+                    return className + "#" + methodName;
+                })
+                .distinct()
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.instrumentation;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One call on an instrumented Page or on a Locator created from it
+ */
+public class PageCall {
+    // Builder methods that only describe a locator, nothing is sent to the browser
+    private static final Set<String> LAZY_METHODS = Set.of(
+            "locator", "nth", "first", "last", "filter", "and", "or", "frameLocator",
+            "getByAltText", "getByLabel", "getByPlaceholder", "getByRole", "getByTestId", "getByText", "getByTitle");
+
+    private final List<String> pageObjectMethods;
+    private final String selector;
+    private final String apiMethod;
+    private final Object target;
+
+    PageCall(List<String> pageObjectMethods, String selector, String apiMethod, Object target) {
+        this.pageObjectMethods = pageObjectMethods;
+        this.selector = selector;
+        this.apiMethod = apiMethod;
+        this.target = target;
+    }
+
+    /**
+     * Page object method that made the call, e.g. "CartPage#proceedToCheckout", or null if the test called directly
+     */
+    public String getPageObjectMethod() {
+        return pageObjectMethods.isEmpty() ? null : pageObjectMethods.get(0);
+    }
+
+    /**
+     * Every page object method on the stack, innermost first, including those that only delegate
+     */
+    public List<String> getPageObjectMethods() {
+        return pageObjectMethods;
+    }
+
+    /**
+     * Selector the call resolves, or null for calls without one (navigate, url, ...)
+     */
+    public String getSelector() {
+        return selector;
+    }
+
+    /**
+     * Name of the Playwright method, e.g. "click"
+     */
+    public String getApiMethod() {
+        return apiMethod;
+    }
+
+    /**
+     * True for calls that only build a locator and never reach the browser
+     */
+    public boolean isLazy() {
+        return LAZY_METHODS.contains(apiMethod);
+    }
+
+    /**
+     * The real Page or Locator the call goes to
+     */
+    public Object getTarget() {
+        return target;
+    }
+}
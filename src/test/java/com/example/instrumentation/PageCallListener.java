@@ -0,0 +1,18 @@
+package com.example.instrumentation;
+
+/**
+ * Observes the calls page objects and tests make on an instrumented Page
+ */
+public interface PageCallListener {
+
+    void beforeCall(PageCall call);
+
+    default void afterCall(PageCall call, long durationNanos) {
+    }
+
+    /**
+     * Called once when the test is done, while the page is still open
+     */
+    default void testFinished(String testId) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.instrumentation;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.impact.ImpactRecorder;
+import com.example.performance.PerformanceBudget;
+import com.example.performance.ThrottlingProfile;
+import com.microsoft.playwright.Page;
+import org.junit.jupiter.api.TestInfo;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires the configured PageCallListeners into the page of one test
+ */
+public class PageInstrumentation {
+
+    private final String testId;
+    private final List<PageCallListener> listeners = new ArrayList<>();
+
+    public PageInstrumentation(TestInfo testInfo) {
+        this.testId = testId(testInfo.getTestClass().orElse(null), testInfo.getTestMethod().orElse(null));
+        if (TestConfig.IMPACT_RECORD || !TestConfig.IMPACT_SINCE.isEmpty()) {
+            listeners.add(new ImpactRecorder());
+        }
+        if (TestConfig.SELECTOR_PROFILE) {
+            listeners.add(new SelectorProfiler());
+        }
+        if (TestConfig.ROUND_TRIPS) {
+            listeners.add(new RoundTripCounter());
+        }
+        if (TestConfig.PERF_TIMINGS || TestConfig.PERF_HISTORY || !ThrottlingProfile.current().isNone()) {
+            listeners.add(new PerformanceBudget());
+        }
+    }
+
+    public Page instrument(Page page) {
+        return InstrumentedPage.wrap(page, listeners);
+    }
+
+    /**
+     * Lets every listener finish its work for the test, call before the context is closed
+     */
+    public void finish() {
+        for (PageCallListener listener : listeners) {
+            try {
+                listener.testFinished(testId);
+            } catch (Exception e) {
+                EventLog.error("Failed to finish page instrumentation: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stable id of a test across runs, e.g. "com.example.tests.SauceDemoTest#testLogout"
+     */
+    public static String testId(Class<?> testClass, Method testMethod) {
+        return (testClass != null ? testClass.getName() : "UnknownClass")
+                + "#" + (testMethod != null ? testMethod.getName() : "unknownMethod");
+    }
+}
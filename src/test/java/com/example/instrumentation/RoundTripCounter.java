@@ -0,0 +1,105 @@
+package com.example.instrumentation;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import com.example.report.RunReports;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Counts driver round trips per test (-Dround.trips=true)
+ *
+ * Every call on the page or a locator that reaches the browser is one round trip;
+ * building a locator is not. The counts go to target/round-trips.csv. When a
+ * baseline file exists, tests that got chattier than their baseline are reported,
+ * copy the report over the baseline to accept the new counts.
+ */
+public class RoundTripCounter implements PageCallListener {
+
+    private static final Path REPORT = Paths.get("target", "round-trips.csv");
+    private static final Map<String, String> results = new ConcurrentHashMap<>();
+    private static boolean reportRegistered = false;
+
+    private final Map<String, Integer> byPageObjectMethod = new TreeMap<>();
+    private int roundTrips;
+
+    public RoundTripCounter() {
+        registerReport();
+    }
+
+    @Override
+    public void beforeCall(PageCall call) {
+        if (call.isLazy()) {
+            return;
+        }
+        roundTrips++;
+        byPageObjectMethod.merge(call.getPageObjectMethod() != null ? call.getPageObjectMethod() : "test",
+                1, Integer::sum);
+    }
+
+    @Override
+    public void testFinished(String testId) {
+        String breakdown = byPageObjectMethod.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(" "));
+        results.put(testId, roundTrips + "," + breakdown);
+        EventLog.publish(new Event(EventType.INFO, testId, "Round trips: " + roundTrips + " for " + testId)
+                .with("roundTrips", roundTrips));
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("round-trips", RoundTripCounter::report);
+        }
+    }
+
+    private static void report() {
+        Map<String, String> sorted = new TreeMap<>(results);
+        try {
+            Files.createDirectories(REPORT.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(REPORT, StandardCharsets.UTF_8))) {
+                out.println("test,round_trips,by_page_object_method");
+                sorted.forEach((testId, line) -> out.println(testId + "," + line));
+            }
+            EventLog.info("Round trip report saved: " + REPORT);
+        } catch (IOException e) {
+            EventLog.error("Failed to write round trip report: " + e.getMessage());
+        }
+        compareWithBaseline(sorted);
+    }
+
+    private static void compareWithBaseline(Map<String, String> current) {
+        Path baseline = Paths.get(TestConfig.ROUND_TRIPS_BASELINE);
+        if (!Files.exists(baseline)) {
+            return;
+        }
+        try {
+            Map<String, Integer> expected = Files.readAllLines(baseline, StandardCharsets.UTF_8).stream()
+                    .skip(1)
+                    .map(line -> line.split(",", 3))
+                    .filter(fields -> fields.length >= 2)
+                    .collect(Collectors.toMap(fields -> fields[0], fields -> Integer.parseInt(fields[1]), (a, b) -> b));
+            current.forEach((testId, line) -> {
+                int count = Integer.parseInt(line.substring(0, line.indexOf(',')));
+                Integer before = expected.get(testId);
+                if (before != null && count > before) {
+                    EventLog.warning("⚠ More round trips than baseline: " + testId + " " + before + " -> " + count);
+                }
+            });
+        } catch (IOException | NumberFormatException e) {
+            EventLog.error("Failed to read round trip baseline " + baseline + ": " + e.getMessage());
+        }
+    }
+}
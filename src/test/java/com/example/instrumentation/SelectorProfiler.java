@@ -0,0 +1,170 @@
+package com.example.instrumentation;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.report.RunReports;
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Times how long each selector takes to resolve in the browser (-Dselector.profile=true)
+ *
+ * The first time a test acts on a selector, the selector is resolved with count()
+ * a few times and the fastest round trip of a no-op evaluate is subtracted, which
+ * leaves the time the selector engines spent in the page. Selectors slower than
+ * selector.profile.slow.ms are flagged as slow, selectors that match more than one
+ * element for a single element action are flagged as ambiguous.
+ * Results for the whole run go to target/selector-profile.csv.
+ */
+public class SelectorProfiler implements PageCallListener {
+
+    private static final int SAMPLES = 3;
+    private static final Path REPORT = Paths.get("target", "selector-profile.csv");
+    // Calls that are meant to see every match
+    private static final Set<String> MULTI_ELEMENT_METHODS = Set.of(
+            "count", "all", "allInnerTexts", "allTextContents", "evaluateAll", "querySelectorAll", "evalOnSelectorAll");
+    private static final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private static boolean reportRegistered = false;
+
+    private final Set<String> profiledInTest = new HashSet<>();
+
+    public SelectorProfiler() {
+        registerReport();
+    }
+
+    @Override
+    public void beforeCall(PageCall call) {
+        if (call.isLazy() || call.getSelector() == null || !profiledInTest.add(call.getSelector())) {
+            return;
+        }
+        try {
+            Page page;
+            Locator locator;
+            if (call.getTarget() instanceof Locator) {
+                locator = (Locator) call.getTarget();
+                page = locator.page();
+            } else {
+                page = (Page) call.getTarget();
+                locator = page.locator(call.getSelector());
+            }
+
+            long baseline = Long.MAX_VALUE;
+            long resolution = Long.MAX_VALUE;
+            int matches = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                page.evaluate("() => 0");
+                baseline = Math.min(baseline, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                matches = locator.count();
+                resolution = Math.min(resolution, System.nanoTime() - start);
+            }
+
+            boolean ambiguous = matches > 1 && !MULTI_ELEMENT_METHODS.contains(call.getApiMethod());
+            profiles.computeIfAbsent(call.getSelector(), Profile::new)
+                    .add(Math.max(0, resolution - baseline) / 1_000_000.0, matches, ambiguous, call.getPageObjectMethod());
+        } catch (Exception e) {
+            // The page may be navigating, the selector is profiled again in the next test
+            profiledInTest.remove(call.getSelector());
+        }
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("selector-profile", SelectorProfiler::report);
+        }
+    }
+
+    /**
+     * Prints the flagged selectors and writes the full profile, slowest first
+     */
+    private static void report() {
+        List<Profile> sorted = profiles.values().stream()
+                .sorted(Comparator.comparingDouble(Profile::median).reversed())
+                .collect(Collectors.toList());
+        try {
+            Files.createDirectories(REPORT.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(REPORT, StandardCharsets.UTF_8))) {
+                out.println("selector,page_object_methods,samples,median_ms,max_ms,max_matches,flags");
+                for (Profile profile : sorted) {
+                    out.println(String.join(",", csv(profile.selector), csv(String.join(" ", profile.methods)),
+                            String.valueOf(profile.timings.size()), String.format("%.2f", profile.median()),
+                            String.format("%.2f", Collections.max(profile.timings)), String.valueOf(profile.maxMatches),
+                            String.join(" ", profile.flags())));
+                }
+            }
+            EventLog.info("Selector profile saved: " + REPORT);
+        } catch (IOException e) {
+            EventLog.error("Failed to write selector profile: " + e.getMessage());
+        }
+        sorted.stream()
+                .filter(profile -> !profile.flags().isEmpty())
+                .forEach(profile -> EventLog.warning(String.format("⚠ Selector %s (%s): %.2f ms, %d matches [%s]",
+                        profile.selector, String.join(" ", profile.methods), profile.median(), profile.maxMatches,
+                        String.join(" ", profile.flags()))));
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Timings of one selector across the run
+     */
+    private static class Profile {
+        private final String selector;
+        private final List<Double> timings = new ArrayList<>();
+        private final Set<String> methods = new TreeSet<>();
+        private int maxMatches;
+        private boolean ambiguous;
+
+        Profile(String selector) {
+            this.selector = selector;
+        }
+
+        synchronized void add(double millis, int matches, boolean ambiguousCall, String pageObjectMethod) {
+            timings.add(millis);
+            maxMatches = Math.max(maxMatches, matches);
+            ambiguous |= ambiguousCall;
+            if (pageObjectMethod != null) {
+                methods.add(pageObjectMethod);
+            }
+        }
+
+        synchronized double median() {
+            List<Double> sorted = new ArrayList<>(timings);
+            Collections.sort(sorted);
+            return sorted.get(sorted.size() / 2);
+        }
+
+        synchronized List<String> flags() {
+            List<String> flags = new ArrayList<>();
+            if (median() > TestConfig.SELECTOR_PROFILE_SLOW_MS) {
+                flags.add("slow");
+            }
+            if (ambiguous) {
+                flags.add("ambiguous");
+            }
+            return flags;
+        }
+    }
+}
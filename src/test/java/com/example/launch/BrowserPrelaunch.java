@@ -0,0 +1,188 @@
+package com.example.launch;
+
+import com.example.base.BaseTest;
+import com.example.config.TestConfig;
+import com.example.daemon.WarmBrowser;
+import com.example.events.EventLog;
+import com.example.quarantine.Quarantine;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Playwright;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.MethodSelector;
+import org.junit.platform.engine.discovery.NestedClassSelector;
+import org.junit.platform.launcher.LauncherDiscoveryListener;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Starts Playwright and the browser while JUnit is still discovering tests
+ * (registered through META-INF/services, -Dbrowser.prelaunch=true by default)
+ *
+ * When discovery first selects a BaseTest subclass, a background thread
+ * installs the cached driver, creates Playwright and launches the configured
+ * browser; the first test class takes them instead of starting its own.
+ * Surefire discovers each test class on its own before running any, so this
+ * still overlaps with discovering and loading the rest. Runs of unit tests
+ * only, or of packages and other selectors that do not name a class, start
+ * no browser. Dispatch workers, which only run browser tests, prelaunch as
+ * soon as their launcher session opens. Later classes
+ * start their own as before. Playwright objects are only ever used by one
+ * thread at a time: the background thread hands them over through the future.
+ * Nothing is prelaunched in the dispatcher, which runs no tests itself, or in
+ * the daemon, which has a warm browser already. With a shared browser server
+ * only Playwright is prelaunched, the server connection is made by the test.
+ * With the result cache on nothing is prelaunched either, since a class whose
+ * tests all passed before is skipped without needing a browser.
+ */
+public class BrowserPrelaunch implements LauncherSessionListener, LauncherDiscoveryListener {
+
+    private static CompletableFuture<Prelaunched> prelaunch;
+    private static boolean disabled = false;
+    private static long startTime;
+
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        if (System.getProperty("dispatch.worker") != null) {
+            start();
+        }
+    }
+
+    @Override
+    public void launcherDiscoveryStarted(LauncherDiscoveryRequest request) {
+        if (startedOrDisabled()) {
+            return;
+        }
+        if (request.getSelectorsByType(DiscoverySelector.class).stream().anyMatch(BrowserPrelaunch::selectsBrowserTest)) {
+            start();
+        }
+    }
+
+    /**
+     * Turns prelaunching off for this JVM, for tools that discover tests without running them
+     */
+    public static synchronized void disable() {
+        disabled = true;
+    }
+
+    private static synchronized boolean startedOrDisabled() {
+        return prelaunch != null || disabled;
+    }
+
+    private static boolean selectsBrowserTest(DiscoverySelector selector) {
+        try {
+            Class<?> testClass = null;
+            if (selector instanceof ClassSelector) {
+                testClass = ((ClassSelector) selector).getJavaClass();
+            } else if (selector instanceof MethodSelector) {
+                testClass = ((MethodSelector) selector).getJavaClass();
+            } else if (selector instanceof NestedClassSelector) {
+                testClass = ((NestedClassSelector) selector).getNestedClass();
+            }
+            return testClass != null && BaseTest.class.isAssignableFrom(testClass);
+        } catch (RuntimeException e) {
+            // A class that cannot be loaded fails in discovery itself
+            return false;
+        }
+    }
+
+    private static synchronized void start() {
+        // An empty quarantine lane has no test to give the browser to
+        if (prelaunch != null || disabled || !TestConfig.BROWSER_PRELAUNCH || TestConfig.RESULT_CACHE || WarmBrowser.isAvailable()
+                || (Quarantine.lane() == Quarantine.Lane.QUARANTINE && Quarantine.isEmpty())) {
+            return;
+        }
+        startTime = System.currentTimeMillis();
+        prelaunch = CompletableFuture.supplyAsync(BrowserPrelaunch::launch, runnable -> {
+            Thread thread = new Thread(runnable, "browser-prelaunch");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(BrowserPrelaunch::closeUnclaimed, "browser-prelaunch-close"));
+    }
+
+    private static Prelaunched launch() {
+        DriverCache.install();
+        Playwright playwright = Playwright.create();
+        try {
+            Browser browser = TestConfig.BROWSER_SERVER
+                    ? null
+                    : BaseTest.selectBrowserType(playwright).launch(BaseTest.launchOptions());
+            return new Prelaunched(playwright, browser, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            playwright.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands the prelaunched Playwright and browser to the caller, once per JVM
+     * Waits if they are still starting; returns null when nothing was prelaunched or it failed.
+     */
+    public static Prelaunched take() {
+        CompletableFuture<Prelaunched> pending;
+        synchronized (BrowserPrelaunch.class) {
+            pending = prelaunch;
+            prelaunch = null;
+            disabled = true;
+        }
+        if (pending == null) {
+            return null;
+        }
+        long takenAt = System.currentTimeMillis();
+        try {
+            Prelaunched prelaunched = pending.get();
+            long waited = System.currentTimeMillis() - takenAt;
+            EventLog.info("Browser prelaunched in " + (prelaunched.readyAt - startTime) + " ms, "
+                    + (waited > 0 ? "first test waited " + waited + " ms" : "ready " + (takenAt - prelaunched.readyAt) + " ms before the first test"));
+            return prelaunched;
+        } catch (ExecutionException e) {
+            EventLog.warning("⚠ Browser prelaunch failed, launching in the test: " + e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Closes a prelaunched browser no test claimed, e.g. when every test was skipped
+     */
+    private static void closeUnclaimed() {
+        CompletableFuture<Prelaunched> pending;
+        synchronized (BrowserPrelaunch.class) {
+            pending = prelaunch;
+            prelaunch = null;
+        }
+        if (pending != null && pending.isDone() && !pending.isCompletedExceptionally()) {
+            pending.join().playwright.close();
+        }
+    }
+
+    /**
+     * Playwright and browser started ahead of the first test; the browser is null with a browser server
+     */
+    public static class Prelaunched {
+        private final Playwright playwright;
+        private final Browser browser;
+        private final long readyAt;
+
+        Prelaunched(Playwright playwright, Browser browser, long readyAt) {
+            this.playwright = playwright;
+            this.browser = browser;
+            this.readyAt = readyAt;
+        }
+
+        public Playwright getPlaywright() {
+            return playwright;
+        }
+
+        public Browser getBrowser() {
+            return browser;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.launch;
+
+import com.example.config.TestConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * AppCDS archive of the dependency classes for dispatch worker JVMs (-Dcds=true by default)
+ *
+ * Workers load Playwright, Gson, JUnit and AssertJ from the same jars every
+ * time; a class-data sharing archive maps them in already parsed and verified.
+ * Training: when there is no archive for the current jars and JVM, the first
+ * worker of the run records the classes it loads (-XX:DumpLoadedClassList)
+ * while it runs its share of the tests. When the run is over the archive is
+ * dumped from that list (-Xshare:dump) and every worker of the next runs
+ * starts with it. The archive name hashes the jars (path, size, modification
+ * time) and the JVM build, so a dependency or JDK change trains a new one.
+ *
+ * CDS only maps classes when the archived jars lead the runtime class path
+ * and refuses non-empty directories in the archived part, so workers get the
+ * jars first and target/classes and target/test-classes after them.
+ */
+public class ClassDataSharing {
+
+    private static final long DUMP_TIMEOUT_MINUTES = 5;
+    private static final String STARTUP_FILE = "startup.properties";
+
+    private final Path dir = Paths.get(TestConfig.CDS_DIR);
+    private final List<String> jars = new ArrayList<>();
+    private final List<String> directories = new ArrayList<>();
+    private final String key;
+    private final List<Long> startupMillis = Collections.synchronizedList(new ArrayList<>());
+    private boolean training;
+
+    public ClassDataSharing(String classPath) {
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            (entry.endsWith(".jar") && Files.isRegularFile(Paths.get(entry)) ? jars : directories).add(entry);
+        }
+        this.key = key(jars);
+    }
+
+    /**
+     * Class path for the workers: the archived jars first, then class directories
+     */
+    public String workerClassPath() {
+        List<String> ordered = new ArrayList<>(jars);
+        ordered.addAll(directories);
+        return String.join(File.pathSeparator, ordered);
+    }
+
+    /**
+     * JVM options for the next worker: use the archive, record classes for it, or nothing
+     */
+    public synchronized List<String> workerJvmOptions() throws IOException {
+        if (!TestConfig.CDS) {
+            return List.of();
+        }
+        if (Files.exists(archive())) {
+            return List.of("-XX:SharedArchiveFile=" + archive().toAbsolutePath(), "-Xshare:auto");
+        }
+        if (!training) {
+            // One worker records the class list, the others would only write over it
+            training = true;
+            Files.createDirectories(dir);
+            return List.of("-XX:DumpLoadedClassList=" + classList().toAbsolutePath());
+        }
+        return List.of();
+    }
+
+    /**
+     * Time from JVM start until a worker asked for its first test
+     */
+    public void recordStartup(long millis) {
+        startupMillis.add(millis);
+    }
+
+    /**
+     * Dumps the archive once the training worker has exited, and reports worker startup times
+     */
+    public void finish(List<Process> workers) {
+        boolean usedArchive = !training && TestConfig.CDS && Files.exists(archive());
+        if (training) {
+            try {
+                for (Process worker : workers) {
+                    worker.waitFor(DUMP_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+                }
+                dumpArchive();
+            } catch (IOException e) {
+                System.err.println("Failed to build class-data sharing archive: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        reportStartup(usedArchive);
+    }
+
+    private void dumpArchive() throws IOException, InterruptedException {
+        if (!Files.exists(classList())) {
+            System.err.println("No class list recorded, the class-data sharing archive is built on the next run");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Path temp = dir.resolve(key + ".jsa.tmp");
+        List<String> command = Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xshare:dump",
+                "-XX:SharedClassListFile=" + classList().toAbsolutePath(),
+                "-XX:SharedArchiveFile=" + temp.toAbsolutePath(),
+                "-classpath", String.join(File.pathSeparator, jars));
+        Path log = dir.resolve("dump.log");
+        Process dump = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        if (!dump.waitFor(DUMP_TIMEOUT_MINUTES, TimeUnit.MINUTES) || dump.exitValue() != 0) {
+            dump.destroyForcibly();
+            Files.deleteIfExists(temp);
+            System.err.println("Class-data sharing dump failed, see " + log);
+            return;
+        }
+        // Archives of earlier jars or JVMs are never used again
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, "*.jsa")) {
+            for (Path archive : stale) {
+                Files.deleteIfExists(archive);
+            }
+        }
+        Files.move(temp, archive(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(classList());
+        System.out.println("Class-data sharing archive built in " + (System.currentTimeMillis() - start) + " ms: " + archive());
+    }
+
+    /**
+     * Prints the median worker startup of this run next to the last median of the other mode
+     */
+    private void reportStartup(boolean usedArchive) {
+        if (startupMillis.isEmpty()) {
+            return;
+        }
+        List<Long> sorted;
+        synchronized (startupMillis) {
+            sorted = startupMillis.stream().sorted().collect(Collectors.toList());
+        }
+        long median = sorted.get(sorted.size() / 2);
+        String mode = usedArchive ? "with" : "without";
+        String other = usedArchive ? "without" : "with";
+        Path file = dir.resolve(STARTUP_FILE);
+        Properties startup = new Properties();
+        try {
+            Files.createDirectories(dir);
+            if (Files.exists(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    startup.load(reader);
+                }
+            }
+            startup.setProperty(mode, String.valueOf(median));
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                startup.store(writer, "Median worker startup in ms, with and without the class-data sharing archive");
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to record worker startup: " + e.getMessage());
+        }
+        String comparison = startup.getProperty(other);
+        System.out.println("Worker startup: " + median + " ms median " + mode + " class-data sharing archive"
+                + (comparison != null ? " (" + comparison + " ms " + other + " it, last measured)" : ""));
+    }
+
+    private Path archive() {
+        return dir.resolve(key + ".jsa");
+    }
+
+    private Path classList() {
+        return dir.resolve(key + ".classlist");
+    }
+
+    private static String key(List<String> jars) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((System.getProperty("java.home") + "|" + System.getProperty("java.vm.version"))
+                    .getBytes(StandardCharsets.UTF_8));
+            for (String jar : jars) {
+                Path path = Paths.get(jar);
+                digest.update((jar + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.substring(0, 16);
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Failed to hash the class path for class-data sharing", e);
+        }
+    }
+}
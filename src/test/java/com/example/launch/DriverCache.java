@@ -0,0 +1,242 @@
+package com.example.launch;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.microsoft.playwright.impl.driver.Driver;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the Playwright driver unpacked in a persistent directory (-Ddriver.cache=true by default)
+ *
+ * Without it every Playwright.create() copies the ~100 MB driver (node and the
+ * Playwright package) out of the driver-bundle jar into a fresh temp directory.
+ * The driver is unpacked once per version into driver.cache.dir and handed to
+ * Playwright through playwright.cli.dir. Before each use the directory is
+ * checked against the jar: every file must be there with the size of its jar
+ * entry, which catches a partial or damaged copy without reading 100 MB.
+ * Forks unpack into a temp directory and move it in place, so they never see
+ * each other's half-written copy.
+ */
+public final class DriverCache {
+
+    private static final String CLI_DIR_PROPERTY = "playwright.cli.dir";
+    private static final String MARKER = ".verified";
+    private static boolean installed = false;
+
+    private DriverCache() {
+    }
+
+    /**
+     * Points Playwright at the cached driver, call before the first Playwright.create() of the JVM
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        if (!TestConfig.DRIVER_CACHE || System.getProperty(CLI_DIR_PROPERTY) != null) {
+            return;
+        }
+        try {
+            System.setProperty(CLI_DIR_PROPERTY, prepare().toString());
+        } catch (IOException | RuntimeException e) {
+            EventLog.warning("⚠ Driver cache unavailable, Playwright unpacks its driver as usual: " + e.getMessage());
+        }
+    }
+
+    private static Path prepare() throws IOException {
+        String platform = platform();
+        URL resource = DriverCache.class.getClassLoader().getResource("driver/" + platform);
+        if (resource == null) {
+            throw new IOException("no driver for " + platform + " on the classpath");
+        }
+        URI uri = toUri(resource);
+        FileSystem jar = null;
+        boolean ownFileSystem = false;
+        try {
+            if ("jar".equals(uri.getScheme())) {
+                try {
+                    jar = FileSystems.newFileSystem(uri, Map.of());
+                    ownFileSystem = true;
+                } catch (FileSystemAlreadyExistsException e) {
+                    jar = FileSystems.getFileSystem(uri);
+                }
+            }
+            Path source = Paths.get(uri);
+            Map<String, Long> expected = entrySizes(source);
+            Path cacheDir = Paths.get(TestConfig.DRIVER_CACHE_DIR);
+            Path target = cacheDir.resolve(version() + "-" + platform);
+            if (isValid(target, expected)) {
+                return target;
+            }
+            return unpack(source, cacheDir, target, expected);
+        } finally {
+            if (ownFileSystem) {
+                jar.close();
+            }
+        }
+    }
+
+    private static Path unpack(Path source, Path cacheDir, Path target, Map<String, Long> expected) throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(cacheDir);
+        Path temp = Files.createTempDirectory(cacheDir, target.getFileName() + "-");
+        for (String relative : expected.keySet()) {
+            Path file = temp.resolve(relative);
+            Files.createDirectories(file.getParent());
+            Files.copy(source.resolve(relative), file, StandardCopyOption.REPLACE_EXISTING);
+            if (isExecutable(file)) {
+                file.toFile().setExecutable(true, false);
+            }
+        }
+        Files.write(temp.resolve(MARKER), digest(expected).getBytes(StandardCharsets.UTF_8));
+
+        if (Files.exists(target)) {
+            if (isValid(target, expected)) {
+                // Another fork finished first
+                deleteRecursively(temp);
+                return target;
+            }
+            deleteRecursively(target);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteRecursively(temp);
+            if (!isValid(target, expected)) {
+                throw e;
+            }
+            return target;
+        }
+        EventLog.info("Playwright driver unpacked to " + target + " in " + (System.currentTimeMillis() - start) + " ms");
+        installBrowsers(target);
+        return target;
+    }
+
+    /**
+     * Playwright installs browsers when it unpacks its driver, the cached driver does it once when unpacked
+     */
+    private static void installBrowsers(Path target) {
+        if (System.getenv("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD") != null) {
+            return;
+        }
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("windows");
+        try {
+            Process install = new ProcessBuilder(target.resolve(windows ? "playwright.cmd" : "playwright.sh").toString(), "install")
+                    .inheritIO()
+                    .start();
+            if (install.waitFor() != 0) {
+                EventLog.warning("⚠ Playwright browser install exited with " + install.exitValue());
+            }
+        } catch (IOException e) {
+            EventLog.warning("⚠ Failed to install Playwright browsers: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isValid(Path target, Map<String, Long> expected) throws IOException {
+        Path marker = target.resolve(MARKER);
+        if (!Files.exists(marker)
+                || !new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).equals(digest(expected))) {
+            return false;
+        }
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            Path file = target.resolve(entry.getKey());
+            if (!Files.isRegularFile(file) || Files.size(file) != entry.getValue()
+                    || (isExecutable(file) && !Files.isExecutable(file))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Relative path and size of every file of the driver, read from the jar's directory
+     */
+    private static Map<String, Long> entrySizes(Path source) throws IOException {
+        Map<String, Long> sizes = new TreeMap<>();
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                sizes.put(source.relativize(file).toString().replace('\\', '/'), Files.size(file));
+            }
+        }
+        if (sizes.isEmpty()) {
+            throw new IOException("driver directory " + source + " is empty");
+        }
+        return sizes;
+    }
+
+    private static boolean isExecutable(Path file) {
+        String name = file.getFileName().toString();
+        return name.equals("node") || name.equals("node.exe") || name.endsWith(".sh") || name.endsWith(".cmd");
+    }
+
+    private static String digest(Map<String, Long> sizes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            sizes.forEach((path, size) -> digest.update((path + "\t" + size + "\n").getBytes(StandardCharsets.UTF_8)));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Driver directory name in the driver-bundle jar, as Playwright picks it
+     */
+    private static String platform() {
+        String os = System.getProperty("os.name").toLowerCase();
+        boolean arm = System.getProperty("os.arch").equals("aarch64");
+        if (os.contains("windows")) {
+            return "win32_x64";
+        }
+        if (os.contains("mac")) {
+            return arm ? "mac-arm64" : "mac";
+        }
+        return arm ? "linux-arm64" : "linux";
+    }
+
+    private static String version() {
+        String version = Driver.class.getPackage().getImplementationVersion();
+        return version != null ? version : "unknown";
+    }
+
+    private static URI toUri(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("invalid driver location " + url, e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.listeners;
 
 import com.example.config.TestConfig;
+import com.example.diagnostics.ContextDiagnostics;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
 import com.microsoft.playwright.Page;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.TestWatcher;
@@ -18,6 +22,10 @@ public class ScreenshotExtension implements TestWatcher {
         if (TestConfig.SCREENSHOT_ON_FAILURE) {
             captureScreenshot(context, "FAILED");
         }
+        ContextDiagnostics diagnostics = ContextDiagnostics.of(context);
+        if (diagnostics != null) {
+            diagnostics.dump("FAILED");
+        }
     }
     
     @Override
@@ -51,12 +59,15 @@ public class ScreenshotExtension implements TestWatcher {
                                 .setPath(screenshotPath)
                                 .setFullPage(true));
                         
-                        System.out.println("Screenshot saved: " + screenshotPath);
+                        EventLog.publish(new Event(EventType.ARTIFACT, testName, "Screenshot saved: " + screenshotPath)
+                                .with("id", context.getUniqueId())
+                                .with("kind", "screenshot")
+                                .with("path", screenshotPath.toString()));
                     }
                 }
             }
         } catch (Exception e) {
-            System.err.println("Failed to capture screenshot: " + e.getMessage());
+            EventLog.error("Failed to capture screenshot: " + e.getMessage());
         }
     }
     
@@ -1,58 +1,78 @@
 package com.example.listeners;
 
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import com.example.metrics.BrowserResources;
+import com.example.performance.ThrottlingProfile;
 import org.junit.jupiter.api.extension.*;
 
-public class TestListener implements TestWatcher, AfterAllCallback {
+public class TestListener implements TestWatcher, BeforeTestExecutionCallback, AfterAllCallback {
+    
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestListener.class);
+    private static final String START_TIME = "startTime";
     
     private int totalTests = 0;
     private int passedTests = 0;
     private int failedTests = 0;
     private int skippedTests = 0;
     
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(START_TIME, System.nanoTime());
+        EventLog.publish(new Event(EventType.TEST_STARTED, context.getDisplayName(), null)
+                .with("id", context.getUniqueId()));
+    }
+    
     @Override
     public void testSuccessful(ExtensionContext context) {
         totalTests++;
         passedTests++;
-        System.out.println("✓ PASSED: " + context.getDisplayName());
+        EventLog.publish(testEvent(EventType.TEST_PASSED, context, null));
     }
     
     @Override
     public void testFailed(ExtensionContext context, Throwable cause) {
         totalTests++;
         failedTests++;
-        System.err.println("✗ FAILED: " + context.getDisplayName());
-        System.err.println("  Reason: " + cause.getMessage());
+        EventLog.publish(testEvent(EventType.TEST_FAILED, context, cause.getMessage())
+                .with("exception", cause.getClass().getName()));
     }
     
     @Override
     public void testAborted(ExtensionContext context, Throwable cause) {
         totalTests++;
         skippedTests++;
-        System.out.println("⊘ ABORTED: " + context.getDisplayName());
+        EventLog.publish(testEvent(EventType.TEST_ABORTED, context, cause != null ? cause.getMessage() : null));
     }
     
     @Override
     public void testDisabled(ExtensionContext context, java.util.Optional<String> reason) {
         totalTests++;
         skippedTests++;
-        System.out.println("⊗ DISABLED: " + context.getDisplayName() + 
-            (reason.isPresent() ? " - " + reason.get() : ""));
+        EventLog.publish(testEvent(EventType.TEST_DISABLED, context, reason.orElse(null)));
     }
     
     @Override
     public void afterAll(ExtensionContext context) {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("TEST EXECUTION SUMMARY");
-        System.out.println("=".repeat(60));
-        System.out.println("Total Tests: " + totalTests);
-        System.out.println("Passed: " + passedTests + " (" + getPercentage(passedTests, totalTests) + "%)");
-        System.out.println("Failed: " + failedTests + " (" + getPercentage(failedTests, totalTests) + "%)");
-        System.out.println("Skipped: " + skippedTests + " (" + getPercentage(skippedTests, totalTests) + "%)");
-        System.out.println("=".repeat(60) + "\n");
+        Event summary = new Event(EventType.SUMMARY, null, "TEST EXECUTION SUMMARY")
+                .with("class", context.getRequiredTestClass().getName())
+                .with("total", totalTests)
+                .with("passed", passedTests)
+                .with("failed", failedTests)
+                .with("skipped", skippedTests);
+        BrowserResources.summary(context.getRequiredTestClass().getName()).forEach(summary::with);
+        EventLog.publish(summary);
     }
     
-    private String getPercentage(int value, int total) {
-        if (total == 0) return "0.00";
-        return String.format("%.2f", (value * 100.0) / total);
+    private Event testEvent(EventType type, ExtensionContext context, String message) {
+        Event event = new Event(type, context.getDisplayName(), message)
+                .with("id", context.getUniqueId())
+                .with("profile", ThrottlingProfile.current().getName());
+        Long start = context.getStore(NAMESPACE).get(START_TIME, Long.class);
+        if (start != null) {
+            event.with("durationMs", (System.nanoTime() - start) / 1_000_000);
+        }
+        return event;
     }
 }
@@ -0,0 +1,225 @@
+package com.example.metrics;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import com.example.report.RunReports;
+import com.microsoft.playwright.Browser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Browser resources used by each test, and contexts, pages and memory it leaves behind
+ * (-Dresources.track=true by default)
+ *
+ * Before the test's context is created and after it is closed, the browser is
+ * sampled: open contexts and pages, and CPU time and resident memory of the
+ * processes this JVM started (driver, browser, renderers). CPU is read again
+ * just before the context is closed, while its renderers still run. A test is flagged
+ * when it leaves contexts open, when it had pages open besides its own when
+ * its context was closed, or when browser memory grew by more than
+ * resources.leak.mb. With a shared browser server the browser is not a child
+ * of the fork and only the driver is measured. With parallel execution
+ * concurrent tests open and close contexts in the same browser, so only the
+ * extra pages of the test's own context are counted, and CPU and memory
+ * readings of concurrent tests overlap.
+ */
+public class BrowserResources {
+
+    private static final Path REPORT = Paths.get("target", "browser-resources.csv");
+    private static final int WORST_TESTS = 5;
+    private static final Map<String, Usage> usages = new ConcurrentHashMap<>();
+    private static boolean reportRegistered = false;
+
+    private final Browser browser;
+    private final int contextsAtStart;
+    private final int pagesAtStart;
+    private final ProcessMetrics.TreeSample start;
+    private ProcessMetrics.TreeSample beforeClose;
+
+    private BrowserResources(Browser browser) {
+        this.browser = browser;
+        this.contextsAtStart = browser.contexts().size();
+        this.pagesAtStart = countPages(browser);
+        this.start = ProcessMetrics.sampleDescendants(ProcessHandle.current());
+    }
+
+    /**
+     * Samples the browser before the test creates its context, or returns null when tracking is off
+     */
+    public static BrowserResources start(Browser browser) {
+        if (!TestConfig.RESOURCES_TRACK) {
+            return null;
+        }
+        registerReport();
+        return new BrowserResources(browser);
+    }
+
+    /**
+     * Samples browser CPU just before the test's context or page is closed, closing it ends its renderers
+     */
+    public void beforeClose() {
+        beforeClose = ProcessMetrics.sampleDescendants(ProcessHandle.current());
+    }
+
+    /**
+     * Samples the browser again after the test's context is closed and flags leaks
+     *
+     * @param pagesAtClose pages open in the test's own context just before it was closed
+     */
+    public void finish(String testClass, String testName, int pagesAtClose) {
+        ProcessMetrics.TreeSample end = ProcessMetrics.sampleDescendants(ProcessHandle.current());
+        Usage usage = new Usage(testClass, testName);
+        usage.contextsAtStart = contextsAtStart;
+        usage.pagesAtStart = pagesAtStart;
+        usage.cpuMillis = (beforeClose != null ? beforeClose : end).getCpuMillis() - start.getCpuMillis();
+        if (usage.cpuMillis < 0) {
+            // A process exited that no sampled process reaps, e.g. the driver was restarted
+            EventLog.warning("⚠ Browser CPU of " + testName + " not measured: browser processes exited during the test");
+            usage.cpuMillis = -1;
+        }
+        usage.rssStartBytes = start.getRssBytes();
+        usage.rssEndBytes = end.getRssBytes();
+        // The test's own page is expected, anything else was opened and never closed
+        usage.pagesLeftOpen = Math.max(0, pagesAtClose - 1);
+        if (!TestConfig.PARALLEL_EXECUTION) {
+            // Browser-wide counts, only the test's own while no other test runs
+            usage.contextsLeaked = Math.max(0, browser.contexts().size() - contextsAtStart);
+            usage.pagesLeftOpen += Math.max(0, countPages(browser) - pagesAtStart);
+        }
+        usages.put(testClass + "#" + testName, usage);
+
+        EventLog.publish(new Event(EventType.RESOURCES, testName, null)
+                .with("contextsAtStart", usage.contextsAtStart)
+                .with("pagesAtStart", usage.pagesAtStart)
+                .with("browserCpuMs", usage.cpuMillis)
+                .with("browserRssMb", usage.rssEndBytes / (1024 * 1024))
+                .with("browserRssGrowthMb", usage.rssGrowthBytes() / (1024 * 1024))
+                .with("contextsLeaked", usage.contextsLeaked)
+                .with("pagesLeftOpen", usage.pagesLeftOpen)
+                .with("flags", usage.flags()));
+        if (!usage.flags().isEmpty()) {
+            EventLog.warning("⚠ Resource leak in " + testName + ": " + usage.describe());
+        }
+    }
+
+    /**
+     * Totals of one test class for its summary, empty when nothing was tracked
+     */
+    public static Map<String, Object> summary(String testClass) {
+        List<Usage> ofClass = usages.values().stream()
+                .filter(usage -> usage.testClass.equals(testClass))
+                .collect(Collectors.toList());
+        if (ofClass.isEmpty()) {
+            return Map.of();
+        }
+        long cpuMillis = ofClass.stream().mapToLong(usage -> Math.max(0, usage.cpuMillis)).sum();
+        long growth = ofClass.stream().mapToLong(Usage::rssGrowthBytes).sum();
+        String leaking = ofClass.stream()
+                .filter(usage -> !usage.flags().isEmpty())
+                .map(usage -> usage.testName)
+                .collect(Collectors.joining(", "));
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("Browser CPU", cpuMillis + " ms");
+        summary.put("Browser memory growth", growth / (1024 * 1024) + " MB");
+        summary.put("Leaking tests", leaking.isEmpty() ? "none" : leaking);
+        return summary;
+    }
+
+    private static int countPages(Browser browser) {
+        return browser.contexts().stream().mapToInt(context -> context.pages().size()).sum();
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("browser-resources", BrowserResources::report);
+        }
+    }
+
+    /**
+     * Writes every test's readings and lists the tests that grew browser memory the most
+     */
+    private static void report() {
+        List<Usage> sorted = new ArrayList<>(usages.values());
+        sorted.sort(Comparator.comparingLong(Usage::rssGrowthBytes).reversed());
+        try {
+            Files.createDirectories(REPORT.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(REPORT, StandardCharsets.UTF_8))) {
+                out.println("test,contexts_at_start,pages_at_start,browser_cpu_ms,rss_start_mb,rss_end_mb,rss_growth_mb,contexts_leaked,pages_left_open,flags");
+                for (Usage usage : sorted) {
+                    out.println(String.join(",", "\"" + usage.testName.replace("\"", "\"\"") + "\"",
+                            String.valueOf(usage.contextsAtStart), String.valueOf(usage.pagesAtStart),
+                            usage.cpuMillis < 0 ? "" : String.valueOf(usage.cpuMillis), String.valueOf(usage.rssStartBytes / (1024 * 1024)),
+                            String.valueOf(usage.rssEndBytes / (1024 * 1024)), String.valueOf(usage.rssGrowthBytes() / (1024 * 1024)),
+                            String.valueOf(usage.contextsLeaked), String.valueOf(usage.pagesLeftOpen),
+                            String.join(" ", usage.flags())));
+                }
+            }
+            EventLog.info("Browser resource report saved: " + REPORT);
+        } catch (IOException e) {
+            EventLog.error("Failed to write browser resource report: " + e.getMessage());
+        }
+        sorted.stream()
+                .filter(usage -> usage.rssGrowthBytes() > 0)
+                .limit(WORST_TESTS)
+                .forEach(usage -> EventLog.info("Browser memory growth: " + usage.rssGrowthBytes() / (1024 * 1024)
+                        + " MB after " + usage.testName + " (" + usage.cpuMillis + " ms browser CPU)"));
+    }
+
+    /**
+     * Readings of one test
+     */
+    private static class Usage {
+        private final String testClass;
+        private final String testName;
+        private int contextsAtStart;
+        private int pagesAtStart;
+        private long cpuMillis;
+        private long rssStartBytes;
+        private long rssEndBytes;
+        private int contextsLeaked;
+        private int pagesLeftOpen;
+
+        Usage(String testClass, String testName) {
+            this.testClass = testClass;
+            this.testName = testName;
+        }
+
+        long rssGrowthBytes() {
+            return rssEndBytes - rssStartBytes;
+        }
+
+        List<String> flags() {
+            List<String> flags = new ArrayList<>();
+            if (contextsLeaked > 0) {
+                flags.add("contexts");
+            }
+            if (pagesLeftOpen > 0) {
+                flags.add("pages");
+            }
+            if (rssGrowthBytes() > TestConfig.RESOURCES_LEAK_MB * 1024 * 1024) {
+                flags.add("memory");
+            }
+            return flags;
+        }
+
+        String describe() {
+            return contextsLeaked + " contexts left open, " + pagesLeftOpen + " extra pages, browser memory "
+                    + (rssGrowthBytes() >= 0 ? "+" : "") + rssGrowthBytes() / (1024 * 1024) + " MB";
+        }
+    }
+}
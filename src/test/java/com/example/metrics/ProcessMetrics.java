@@ -0,0 +1,152 @@
+package com.example.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * CPU and memory readings for process trees and the host
+ * Memory figures come from /proc and are only available on Linux; elsewhere they read as -1.
+ * On Linux the CPU of a tree includes children its processes have already reaped,
+ * so a renderer that exits between two samples still counts.
+ */
+public class ProcessMetrics {
+
+    private static final Path PROC = Paths.get("/proc");
+    // /proc reports times in USER_HZ, which is 100 on every Linux the browsers run on
+    private static final long MILLIS_PER_TICK = 10;
+    // cutime and cstime, counted from the first field after the command name
+    private static final int CHILDREN_USER_FIELD = 13;
+    private static final int CHILDREN_SYSTEM_FIELD = 14;
+
+    private ProcessMetrics() {
+    }
+
+    /**
+     * Snapshot of a process and all of its descendants (driver, browser, renderers)
+     */
+    public static TreeSample sampleTree(ProcessHandle root) {
+        return sample(Stream.concat(Stream.of(root), root.descendants()));
+    }
+
+    /**
+     * Snapshot of the descendants of a process only, e.g. the driver and browser started by this JVM
+     */
+    public static TreeSample sampleDescendants(ProcessHandle root) {
+        return sample(root.descendants());
+    }
+
+    private static TreeSample sample(Stream<ProcessHandle> tree) {
+        List<ProcessHandle> processes = tree
+                .filter(ProcessHandle::isAlive)
+                .collect(Collectors.toList());
+        long cpuMillis = 0;
+        long rssBytes = 0;
+        for (ProcessHandle process : processes) {
+            cpuMillis += process.info().totalCpuDuration().map(Duration::toMillis).orElse(0L)
+                    + reapedChildrenCpuMillis(process.pid());
+            rssBytes += Math.max(0, residentSetSize(process.pid()));
+        }
+        return new TreeSample(System.currentTimeMillis(), cpuMillis, rssBytes, processes.size());
+    }
+
+    /**
+     * Resident set size of one process in bytes, or -1 if unknown
+     */
+    public static long residentSetSize(long pid) {
+        return readKilobytes(PROC.resolve(String.valueOf(pid)).resolve("status"), "VmRSS:");
+    }
+
+    /**
+     * CPU time of the children a process has waited for, in milliseconds, or 0 if unknown
+     */
+    static long reapedChildrenCpuMillis(long pid) {
+        try {
+            String stat = new String(Files.readAllBytes(PROC.resolve(String.valueOf(pid)).resolve("stat")), StandardCharsets.US_ASCII);
+            // The command name is in parentheses and may contain spaces
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split("\\s+");
+            return (Long.parseLong(fields[CHILDREN_USER_FIELD]) + Long.parseLong(fields[CHILDREN_SYSTEM_FIELD])) * MILLIS_PER_TICK;
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Memory the host can still hand out without swapping, in bytes, or -1 if unknown
+     */
+    public static long memoryAvailable() {
+        return readKilobytes(PROC.resolve("meminfo"), "MemAvailable:");
+    }
+
+    /**
+     * One minute load average divided by the number of cores, or -1 if unknown
+     */
+    public static double normalizedLoad() {
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        return load < 0 ? -1 : load / cores();
+    }
+
+    public static int cores() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static long readKilobytes(Path file, String key) {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.filter(line -> line.startsWith(key))
+                    .map(line -> line.substring(key.length()).trim().split("\\s+")[0])
+                    .mapToLong(value -> Long.parseLong(value) * 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * CPU time and resident memory of a process tree at one point in time
+     */
+    public static class TreeSample {
+        private final long timestamp;
+        private final long cpuMillis;
+        private final long rssBytes;
+        private final int processCount;
+
+        TreeSample(long timestamp, long cpuMillis, long rssBytes, int processCount) {
+            this.timestamp = timestamp;
+            this.cpuMillis = cpuMillis;
+            this.rssBytes = rssBytes;
+            this.processCount = processCount;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getCpuMillis() {
+            return cpuMillis;
+        }
+
+        public long getRssBytes() {
+            return rssBytes;
+        }
+
+        public int getProcessCount() {
+            return processCount;
+        }
+
+        /**
+         * Average number of cores used between an earlier sample and this one
+         */
+        public double coresUsedSince(TreeSample earlier) {
+            long elapsed = timestamp - earlier.timestamp;
+            return elapsed <= 0 ? 0 : Math.max(0, cpuMillis - earlier.cpuMillis) / (double) elapsed;
+        }
+    }
+}
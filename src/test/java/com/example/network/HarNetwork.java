@@ -0,0 +1,128 @@
+package com.example.network;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.options.HarContentPolicy;
+import com.microsoft.playwright.options.HarMode;
+import com.microsoft.playwright.options.HarNotFound;
+import org.junit.jupiter.api.TestInfo;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HAR record and replay of the traffic of each test (network.mode=record|replay|live)
+ *
+ * record - every request of a test's page object journey is captured into
+ *          har.dir/har.version/TestClass/testMethod.har when its context closes
+ * replay - every request is served from that archive and nothing reaches the
+ *          network; requests missing from the archive are aborted and listed
+ *          in target/har-missing.txt so the archive can be refreshed
+ * live   - no recording or routing (default)
+ */
+public class HarNetwork {
+
+    public enum Mode { LIVE, RECORD, REPLAY }
+
+    public static final Mode MODE = Mode.valueOf(TestConfig.NETWORK_MODE.toUpperCase());
+
+    private static final Path MISSING_REPORT = Paths.get("target", "har-missing.txt");
+
+    private final Path harPath;
+    private final List<String> missing = Collections.synchronizedList(new ArrayList<>());
+
+    public HarNetwork(TestInfo testInfo) {
+        this.harPath = harPath(testInfo.getTestClass().orElse(null), testInfo.getTestMethod().orElse(null));
+    }
+
+    /**
+     * Archive of one test: har.dir/har.version/TestClass/testMethod.har
+     */
+    public static Path harPath(Class<?> testClass, Method testMethod) {
+        String className = testClass != null ? testClass.getSimpleName() : "UnknownClass";
+        String methodName = testMethod != null ? testMethod.getName() : "unknownMethod";
+        return Paths.get(TestConfig.HAR_DIR, TestConfig.HAR_VERSION, className, methodName + ".har");
+    }
+
+    public Path getHarPath() {
+        return harPath;
+    }
+
+    /**
+     * Adds HAR recording to the context options in record mode
+     */
+    public void configureContext(Browser.NewContextOptions contextOptions) {
+        if (MODE != Mode.RECORD) {
+            return;
+        }
+        try {
+            Files.createDirectories(harPath.getParent());
+        } catch (IOException e) {
+            EventLog.error("Failed to create HAR directory: " + harPath.getParent() + " - " + e.getMessage());
+        }
+        contextOptions.setRecordHarPath(harPath)
+                .setRecordHarMode(HarMode.FULL)
+                .setRecordHarContent(HarContentPolicy.EMBED);
+    }
+
+    /**
+     * Serves the context from the archive in replay mode
+     */
+    public void attach(BrowserContext context) {
+        if (MODE != Mode.REPLAY) {
+            return;
+        }
+        // Routes registered later take precedence, so this one only sees what the archive cannot serve
+        context.route("**/*", route -> {
+            missing.add(route.request().method() + " " + route.request().url());
+            route.abort();
+        });
+        if (Files.exists(harPath)) {
+            context.routeFromHAR(harPath, new BrowserContext.RouteFromHAROptions()
+                    .setNotFound(HarNotFound.FALLBACK));
+        } else {
+            EventLog.error("No HAR archive for this test: " + harPath + " (run with -Dnetwork.mode=record)");
+        }
+    }
+
+    /**
+     * Reports requests the archive could not serve, called once the context is closed
+     */
+    public void reportMissing() {
+        if (MODE == Mode.RECORD) {
+            EventLog.info("HAR saved: " + harPath);
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        EventLog.error(missing.size() + " requests missing from " + harPath
+                + ", refresh it with -Dnetwork.mode=record");
+        List<String> lines = new ArrayList<>();
+        synchronized (missing) {
+            for (String request : missing) {
+                lines.add(harPath + "\t" + request);
+            }
+        }
+        appendMissing(lines);
+    }
+
+    private static synchronized void appendMissing(List<String> lines) {
+        try {
+            Files.createDirectories(MISSING_REPORT.getParent());
+            Files.write(MISSING_REPORT, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            EventLog.error("Failed to write HAR missing report: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.performance;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import com.example.instrumentation.PageCall;
+import com.example.instrumentation.PageCallListener;
+import com.example.report.RunReports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Times page object methods and checks them against per-profile budgets
+ * (-Dperf.timings=true, on by default under a throttling profile)
+ *
+ * Browser time of every call is added to the page object method that made
+ * it, e.g. LoginPage#login or CheckoutPage#clickFinish. Budgets are read from
+ * perf.budgets, one line per profile and method:
+ *
+ *   mobile.LoginPage#login=3000
+ *
+ * Methods over budget are reported as warnings, all timings of the run go to
+ * target/performance-<profile>.csv. The timings and the test's total browser
+ * time are also added to the TimingHistory per test (-Dperf.history=true).
+ */
+public class PerformanceBudget implements PageCallListener {
+
+    private static final Map<String, Long> budgets = loadBudgets();
+    private static final List<String> results = Collections.synchronizedList(new ArrayList<>());
+    private static boolean reportRegistered = false;
+
+    private final Map<String, Long> nanosByPageObjectMethod = new TreeMap<>();
+    private long totalNanos;
+
+    public PerformanceBudget() {
+        registerReport();
+    }
+
+    @Override
+    public void beforeCall(PageCall call) {
+    }
+
+    @Override
+    public void afterCall(PageCall call, long durationNanos) {
+        if (call.isLazy()) {
+            return;
+        }
+        totalNanos += durationNanos;
+        if (call.getPageObjectMethod() != null) {
+            nanosByPageObjectMethod.merge(call.getPageObjectMethod(), durationNanos, Long::sum);
+        }
+    }
+
+    @Override
+    public void testFinished(String testId) {
+        if (TestConfig.PERF_HISTORY) {
+            nanosByPageObjectMethod.forEach((method, nanos) -> TimingHistory.record(testId, method, nanos / 1_000_000.0));
+            TimingHistory.record(testId, TimingHistory.TEST_TOTAL, totalNanos / 1_000_000.0);
+        }
+        if (!TestConfig.PERF_TIMINGS && ThrottlingProfile.current().isNone()) {
+            // Only recording history
+            return;
+        }
+        String profile = ThrottlingProfile.current().getName();
+        Event event = new Event(EventType.INFO, testId, "Page object timings under " + profile + " for " + testId)
+                .with("profile", profile);
+        nanosByPageObjectMethod.forEach((method, nanos) -> {
+            long millis = nanos / 1_000_000;
+            event.with(method, millis);
+            results.add(String.join(",", testId, method, String.valueOf(millis)));
+            Long budget = budgets.get(profile + "." + method);
+            if (budget != null && millis > budget) {
+                EventLog.warning("⚠ Over budget under " + profile + ": " + method + " took " + millis
+                        + " ms, budget " + budget + " ms (" + testId + ")");
+            }
+        });
+        EventLog.publish(event);
+    }
+
+    private static Map<String, Long> loadBudgets() {
+        Map<String, Long> loaded = new TreeMap<>();
+        Path file = Paths.get(TestConfig.PERF_BUDGETS);
+        if (!Files.exists(file)) {
+            return loaded;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            properties.stringPropertyNames().forEach(key -> loaded.put(key, Long.parseLong(properties.getProperty(key).trim())));
+        } catch (IOException | NumberFormatException e) {
+            EventLog.error("Failed to read performance budgets " + file + ": " + e.getMessage());
+        }
+        return loaded;
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("performance-report", PerformanceBudget::report);
+        }
+    }
+
+    private static void report() {
+        if (results.isEmpty()) {
+            return;
+        }
+        Path report = Paths.get("target", "performance-" + ThrottlingProfile.current().getName().replaceAll("[^a-z0-9-]", "_") + ".csv");
+        try {
+            Files.createDirectories(report.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+                out.println("test,page_object_method,ms");
+                synchronized (results) {
+                    results.stream().sorted().forEach(out::println);
+                }
+            }
+            EventLog.info("Performance timings saved: " + report);
+        } catch (IOException e) {
+            EventLog.error("Failed to write performance timings: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.performance;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Two-sample statistics for comparing timings with their history
+ *
+ * Timings are skewed and have outliers, so both tests are non-parametric:
+ * Mann-Whitney U for whether the current samples tend to be slower, and a
+ * bootstrap confidence interval for how much slower the median is.
+ */
+final class RegressionStats {
+
+    private static final int RESAMPLES = 2000;
+    // Fixed, so the same samples always give the same interval
+    private static final long SEED = 46;
+
+    private RegressionStats() {
+    }
+
+    static double median(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * One-sided p-value that current is stochastically greater than baseline, normal approximation with tie correction
+     */
+    static double mannWhitneyGreater(double[] current, double[] baseline) {
+        int n1 = current.length;
+        int n2 = baseline.length;
+        int n = n1 + n2;
+        double[] values = new double[n];
+        boolean[] isCurrent = new boolean[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i < n1 ? current[i] : baseline[i - n1];
+            isCurrent[i] = i < n1;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double rankSumCurrent = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && values[order[j + 1]] == values[order[i]]) {
+                j++;
+            }
+            // Tied values share the average of their ranks
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (isCurrent[order[k]]) {
+                    rankSumCurrent += rank;
+                }
+            }
+            int ties = j - i + 1;
+            tieTerm += (double) ties * ties * ties - ties;
+            i = j + 1;
+        }
+        double u = rankSumCurrent - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        // Continuity correction towards the mean
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1 - normalCdf(z);
+    }
+
+    /**
+     * Percentile bootstrap interval of median(current) / median(baseline)
+     */
+    static double[] medianRatioInterval(double[] current, double[] baseline, double confidence) {
+        Random random = new Random(SEED);
+        double[] ratios = new double[RESAMPLES];
+        double[] currentSample = new double[current.length];
+        double[] baselineSample = new double[baseline.length];
+        for (int r = 0; r < RESAMPLES; r++) {
+            for (int i = 0; i < current.length; i++) {
+                currentSample[i] = current[random.nextInt(current.length)];
+            }
+            for (int i = 0; i < baseline.length; i++) {
+                baselineSample[i] = baseline[random.nextInt(baseline.length)];
+            }
+            double baselineMedian = median(baselineSample);
+            ratios[r] = baselineMedian > 0 ? median(currentSample) / baselineMedian : 1;
+        }
+        Arrays.sort(ratios);
+        double tail = (1 - confidence) / 2;
+        return new double[]{
+                ratios[(int) Math.floor(tail * (RESAMPLES - 1))],
+                ratios[(int) Math.ceil((1 - tail) * (RESAMPLES - 1))]};
+    }
+
+    /**
+     * Standard normal CDF, Abramowitz and Stegun 26.2.17 (error below 7.5e-8)
+     */
+    private static double normalCdf(double z) {
+        double t = 1 / (1 + 0.2316419 * Math.abs(z));
+        double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+        double tailArea = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937
+                + t * (-1.821255978 + t * 1.330274429))));
+        return z >= 0 ? 1 - tailArea : tailArea;
+    }
+}
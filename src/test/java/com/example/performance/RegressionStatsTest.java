@@ -0,0 +1,92 @@
+package com.example.performance;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for the timing regression statistics, no browser needed
+ * Expected p-values are the normal approximation with continuity and tie correction worked out by hand.
+ */
+class RegressionStatsTest {
+
+    private static final double P_TOLERANCE = 1e-6;
+
+    @Test
+    void medianOfOddAndEvenSamples() {
+        assertThat(RegressionStats.median(new double[] {3, 1, 2})).isEqualTo(2);
+        assertThat(RegressionStats.median(new double[] {4, 1, 3, 2})).isEqualTo(2.5);
+        assertThat(RegressionStats.median(new double[] {7})).isEqualTo(7);
+    }
+
+    @Test
+    void medianLeavesSamplesUnsorted() {
+        double[] samples = {3, 1, 2};
+        RegressionStats.median(samples);
+        assertThat(samples).containsExactly(3, 1, 2);
+    }
+
+    @Test
+    void mannWhitneyWithoutTies() {
+        // U = 9, mean 4.5, variance 5.25: z = (9 - 4.5 - 0.5) / sqrt(5.25)
+        assertThat(RegressionStats.mannWhitneyGreater(new double[] {4, 5, 6}, new double[] {1, 2, 3}))
+                .isCloseTo(0.0404278, within(P_TOLERANCE));
+        // U = 0: z = (0 - 4.5 - 0.5) / sqrt(5.25)
+        assertThat(RegressionStats.mannWhitneyGreater(new double[] {1, 2, 3}, new double[] {4, 5, 6}))
+                .isCloseTo(0.9854518, within(P_TOLERANCE));
+    }
+
+    @Test
+    void mannWhitneyWithTies() {
+        // Ties of 2 and 3 share ranks and lower the variance
+        assertThat(RegressionStats.mannWhitneyGreater(new double[] {2, 3, 3, 4}, new double[] {1, 2, 2, 3}))
+                .isCloseTo(0.0860169, within(P_TOLERANCE));
+    }
+
+    @Test
+    void mannWhitneyOfSeparatedSamples() {
+        double[] baseline = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        double[] current = {11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+        assertThat(RegressionStats.mannWhitneyGreater(current, baseline)).isCloseTo(0.0000913, within(P_TOLERANCE));
+    }
+
+    @Test
+    void mannWhitneyOfIdenticalValuesIsNotSignificant() {
+        assertThat(RegressionStats.mannWhitneyGreater(new double[] {5, 5, 5}, new double[] {5, 5, 5, 5})).isEqualTo(1);
+    }
+
+    @Test
+    void bootstrapIntervalOfConstantSamplesIsTheRatio() {
+        double[] interval = RegressionStats.medianRatioInterval(new double[] {20, 20, 20}, new double[] {10, 10, 10, 10}, 0.95);
+        assertThat(interval).containsExactly(2, 2);
+    }
+
+    @Test
+    void bootstrapIntervalOfSameSamplesContainsOne() {
+        double[] samples = {90, 95, 100, 104, 110, 97, 102, 99, 108, 93};
+        double[] interval = RegressionStats.medianRatioInterval(samples, samples, 0.95);
+        assertThat(interval[0]).isLessThanOrEqualTo(1);
+        assertThat(interval[1]).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void bootstrapIntervalOfScaledSamplesContainsTheScale() {
+        double[] baseline = {90, 95, 100, 104, 110, 97, 102, 99, 108, 93};
+        double[] current = new double[baseline.length];
+        for (int i = 0; i < baseline.length; i++) {
+            current[i] = baseline[i] * 1.5;
+        }
+        double[] interval = RegressionStats.medianRatioInterval(current, baseline, 0.95);
+        assertThat(interval[0]).isGreaterThan(1).isLessThanOrEqualTo(1.5);
+        assertThat(interval[1]).isGreaterThanOrEqualTo(1.5);
+    }
+
+    @Test
+    void bootstrapIntervalIsReproducible() {
+        double[] baseline = {90, 95, 100, 104, 110, 97, 102, 99, 108, 93};
+        double[] current = {120, 101, 115, 98, 130, 111, 125};
+        assertThat(RegressionStats.medianRatioInterval(current, baseline, 0.95))
+                .containsExactly(RegressionStats.medianRatioInterval(current, baseline, 0.95));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.performance;
+
+import com.example.instrumentation.InstrumentedPage;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.CDPSession;
+import com.microsoft.playwright.Page;
+
+/**
+ * Applies the run's throttling profile to a page through a CDP session
+ *
+ * Conditions are set per page, so applyToPages registers a page listener once
+ * per context, before its first page: every page the context opens after that,
+ * popups and new tabs included, is throttled before it navigates. Requests
+ * served by Playwright routes (HAR replay) never reach the network and only
+ * see the CPU slowdown.
+ */
+public final class Throttling {
+
+    private Throttling() {
+    }
+
+    /**
+     * Throttles every page the context opens from now on
+     */
+    public static void applyToPages(BrowserContext context) {
+        if (ThrottlingProfile.current().isNone()) {
+            return;
+        }
+        context.onPage(page -> apply(context, page));
+    }
+
+    public static void apply(BrowserContext context, Page page) {
+        ThrottlingProfile profile = ThrottlingProfile.current();
+        if (profile.isNone()) {
+            return;
+        }
+        CDPSession session = context.newCDPSession(InstrumentedPage.unwrap(page));
+        if (profile.throttlesNetwork()) {
+            JsonObject conditions = new JsonObject();
+            conditions.addProperty("offline", false);
+            conditions.addProperty("latency", profile.getLatencyMs());
+            conditions.addProperty("downloadThroughput", profile.getDownloadBytesPerSecond());
+            conditions.addProperty("uploadThroughput", profile.getUploadBytesPerSecond());
+            session.send("Network.enable");
+            session.send("Network.emulateNetworkConditions", conditions);
+        }
+        if (profile.throttlesCpu()) {
+            JsonObject rate = new JsonObject();
+            rate.addProperty("rate", profile.getCpuRate());
+            session.send("Emulation.setCPUThrottlingRate", rate);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.performance;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CPU slowdown and network conditions a run is emulated under (-Dthrottle.profile=mobile)
+ *
+ * Presets follow the DevTools and Lighthouse presets; a custom profile is given
+ * as "cpu=4,latency=150,download=204800,upload=96000" with throughput in bytes
+ * per second. Throttling goes through CDP, so only chromium runs are throttled;
+ * other browsers run under "none".
+ */
+public final class ThrottlingProfile {
+
+    public static final ThrottlingProfile NONE = new ThrottlingProfile("none", 1, 0, -1, -1);
+
+    private static final Map<String, ThrottlingProfile> PRESETS = new LinkedHashMap<>();
+
+    static {
+        preset(NONE);
+        preset(new ThrottlingProfile("slow-cpu", 4, 0, -1, -1));
+        preset(new ThrottlingProfile("fast-3g", 1, 563, 180_000, 84_375));
+        preset(new ThrottlingProfile("slow-3g", 1, 2000, 50_000, 50_000));
+        preset(new ThrottlingProfile("mobile", 4, 150, 204_800, 96_000));
+        preset(new ThrottlingProfile("low-end", 6, 563, 180_000, 84_375));
+    }
+
+    private static final ThrottlingProfile CURRENT = resolve(TestConfig.THROTTLE_PROFILE);
+
+    private final String name;
+    private final double cpuRate;
+    private final long latencyMs;
+    private final long downloadBytesPerSecond;
+    private final long uploadBytesPerSecond;
+
+    private ThrottlingProfile(String name, double cpuRate, long latencyMs, long downloadBytesPerSecond, long uploadBytesPerSecond) {
+        this.name = name;
+        this.cpuRate = cpuRate;
+        this.latencyMs = latencyMs;
+        this.downloadBytesPerSecond = downloadBytesPerSecond;
+        this.uploadBytesPerSecond = uploadBytesPerSecond;
+    }
+
+    private static void preset(ThrottlingProfile profile) {
+        PRESETS.put(profile.name, profile);
+    }
+
+    /**
+     * Profile of this run, NONE when the browser cannot be throttled
+     */
+    public static ThrottlingProfile current() {
+        return CURRENT;
+    }
+
+    private static ThrottlingProfile resolve(String value) {
+        ThrottlingProfile profile = parse(value);
+        if (profile != NONE && !"chromium".equalsIgnoreCase(TestConfig.BROWSER)) {
+            EventLog.warning("⚠ Throttling profile " + profile.name + " needs chromium, running " + TestConfig.BROWSER + " unthrottled");
+            return NONE;
+        }
+        return profile;
+    }
+
+    public static ThrottlingProfile parse(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.isEmpty()) {
+            return NONE;
+        }
+        ThrottlingProfile preset = PRESETS.get(trimmed);
+        if (preset != null) {
+            return preset;
+        }
+        if (!trimmed.contains("=")) {
+            throw new IllegalArgumentException("Unknown throttling profile '" + value + "', use one of "
+                    + PRESETS.keySet() + " or cpu=4,latency=150,download=204800,upload=96000");
+        }
+        double cpu = 1;
+        long latency = 0;
+        long download = -1;
+        long upload = -1;
+        for (String setting : trimmed.split(",")) {
+            String[] pair = setting.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid throttling setting '" + setting + "' in " + value);
+            }
+            switch (pair[0].trim()) {
+                case "cpu":
+                    cpu = Double.parseDouble(pair[1].trim());
+                    break;
+                case "latency":
+                    latency = Long.parseLong(pair[1].trim());
+                    break;
+                case "download":
+                    download = Long.parseLong(pair[1].trim());
+                    break;
+                case "upload":
+                    upload = Long.parseLong(pair[1].trim());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown throttling setting '" + pair[0] + "' in " + value);
+            }
+        }
+        return new ThrottlingProfile(trimmed, cpu, latency, download, upload);
+    }
+
+    /**
+     * Preset name or the custom settings, used as the profile key in results and budgets
+     */
+    public String getName() {
+        return name;
+    }
+
+    public double getCpuRate() {
+        return cpuRate;
+    }
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public long getDownloadBytesPerSecond() {
+        return downloadBytesPerSecond;
+    }
+
+    public long getUploadBytesPerSecond() {
+        return uploadBytesPerSecond;
+    }
+
+    public boolean throttlesCpu() {
+        return cpuRate > 1;
+    }
+
+    public boolean throttlesNetwork() {
+        return latencyMs > 0 || downloadBytesPerSecond >= 0 || uploadBytesPerSecond >= 0;
+    }
+
+    public boolean isNone() {
+        return !throttlesCpu() && !throttlesNetwork();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.performance;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.report.RunReports;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local history of timings with regression checks against earlier runs (-Dperf.history=true)
+ *
+ * Every run saves the browser time of each page object step (LoginPage#login,
+ * CheckoutPage#clickFinish, ...) and each test's total, keyed by test and step,
+ * to perf.history.dir. Runs are only compared with runs of the same
+ * environment: browser, viewport, throttling profile, base URL, network mode
+ * and site fingerprint, so stand-in or HAR replay runs are never mixed with
+ * live ones.
+ *
+ * At the end of the run each step is compared with the last perf.history.runs
+ * runs, over the tests that ran this time only, so a run that skips tests
+ * (result cache, impact analysis) is not compared with a different mix. Each
+ * test+step contributes its time in this run and its median in each earlier
+ * run, both divided by its median over those runs, so long and short tests
+ * weigh the same. A step is a regression when Mann-Whitney says it is slower
+ * (p below perf.regression.alpha), the bootstrap interval of the median ratio
+ * lies above 1, and the median is more than perf.regression.min slower. The
+ * tests keep noise out, the minimum keeps out small shifts that are real but
+ * not worth chasing.
+ */
+public class TimingHistory {
+
+    // Step name of a test's total browser time
+    static final String TEST_TOTAL = "(test total)";
+    private static final int MIN_CURRENT_SAMPLES = 3;
+    private static final int MIN_BASELINE_SAMPLES = 5;
+    private static final double CONFIDENCE = 0.95;
+    private static final int KEPT_RUNS = 100;
+    private static final Path REPORT = Paths.get("target", "performance-history.csv");
+    private static final long started = System.currentTimeMillis();
+    // Keyed by "step<TAB>test"
+    private static final Map<String, List<Double>> samples = new ConcurrentHashMap<>();
+    private static boolean reportRegistered = false;
+
+    private TimingHistory() {
+    }
+
+    /**
+     * Adds a sample of this run, e.g. record("[engine:junit-jupiter]/...", "LoginPage#login", 812)
+     */
+    static void record(String test, String step, double millis) {
+        registerReport();
+        samples.computeIfAbsent(step + "\t" + test, key -> Collections.synchronizedList(new ArrayList<>())).add(millis);
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("timing-history", TimingHistory::compareAndSave);
+        }
+    }
+
+    private static void compareAndSave() {
+        Path dir = Paths.get(TestConfig.PERF_HISTORY_DIR, environment());
+        try {
+            List<Path> runs = earlierRuns(dir);
+            compare(load(runs.subList(0, Math.min(TestConfig.PERF_HISTORY_RUNS, runs.size()))), runs.size());
+            save(dir);
+            for (Path old : runs.subList(Math.min(KEPT_RUNS - 1, runs.size()), runs.size())) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            EventLog.error("Failed to update timing history " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs saved before this JVM started, newest first; forks of the current run save theirs later
+     */
+    private static List<Path> earlierRuns(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".tsv"))
+                    .filter(file -> file.toFile().lastModified() < started)
+                    .sorted(Collections.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Median of every test+step in each run, one value per run it ran in
+     */
+    private static Map<String, List<Double>> load(List<Path> runs) throws IOException {
+        Map<String, List<Double>> baseline = new TreeMap<>();
+        for (Path run : runs) {
+            Map<String, List<Double>> ofRun = new TreeMap<>();
+            for (String line : Files.readAllLines(run, StandardCharsets.UTF_8)) {
+                int last = line.lastIndexOf('\t');
+                if (last > 0) {
+                    try {
+                        ofRun.computeIfAbsent(line.substring(0, last), key -> new ArrayList<>())
+                                .add(Double.parseDouble(line.substring(last + 1)));
+                    } catch (NumberFormatException e) {
+                        // A line cut short by a killed run
+                    }
+                }
+            }
+            ofRun.forEach((key, values) -> baseline.computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(RegressionStats.median(toArray(values))));
+        }
+        return baseline;
+    }
+
+    private static void compare(Map<String, List<Double>> baseline, int runCount) throws IOException {
+        if (baseline.isEmpty()) {
+            EventLog.info("Timing history: no earlier runs for this environment, this run becomes the baseline");
+            return;
+        }
+        Map<String, Step> steps = new TreeMap<>();
+        new TreeMap<>(samples).forEach((key, values) -> {
+            String[] stepAndTest = key.split("\t", 2);
+            Step step = steps.computeIfAbsent(stepAndTest[0], Step::new);
+            List<Double> before = baseline.get(key);
+            if (before != null) {
+                step.add(stepAndTest[1], RegressionStats.median(toArray(values)), toArray(before));
+            }
+        });
+
+        int regressions = 0;
+        int compared = 0;
+        Files.createDirectories(REPORT.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(REPORT, StandardCharsets.UTF_8))) {
+            out.println("step,tests,baseline_samples,ratio,ratio_low,ratio_high,p_value,slowest_test,slowest_ratio,verdict");
+            for (Step step : steps.values()) {
+                double[] current = toArray(step.current);
+                double[] before = toArray(step.before);
+                if (current.length < MIN_CURRENT_SAMPLES || before.length < MIN_BASELINE_SAMPLES) {
+                    out.println(String.join(",", csv(step.name), String.valueOf(current.length),
+                            String.valueOf(before.length), "", "", "", "", "", "", "too few samples"));
+                    continue;
+                }
+                compared++;
+                double p = RegressionStats.mannWhitneyGreater(current, before);
+                double[] interval = RegressionStats.medianRatioInterval(current, before, CONFIDENCE);
+                String verdict = "unchanged";
+                double ratio = RegressionStats.median(current) / RegressionStats.median(before);
+                if (p < TestConfig.PERF_REGRESSION_ALPHA && interval[0] > 1 && ratio > 1 + TestConfig.PERF_REGRESSION_MIN) {
+                    verdict = "regression";
+                    regressions++;
+                    EventLog.warning(String.format("⚠ Slower than the last %d runs: %s x%.2f over %d tests "
+                                    + "(95%% interval x%.2f-x%.2f, p=%.4f), most in %s x%.2f",
+                            Math.min(runCount, TestConfig.PERF_HISTORY_RUNS), step.name, ratio, current.length,
+                            interval[0], interval[1], p, step.slowestTest, step.slowestRatio));
+                } else if (interval[1] < 1 && ratio < 1 - TestConfig.PERF_REGRESSION_MIN) {
+                    verdict = "faster";
+                }
+                out.println(String.join(",", csv(step.name), String.valueOf(current.length),
+                        String.valueOf(before.length), String.format("%.3f", ratio), String.format("%.3f", interval[0]),
+                        String.format("%.3f", interval[1]), String.format("%.5f", p), csv(step.slowestTest),
+                        String.format("%.3f", step.slowestRatio), verdict));
+            }
+        }
+        EventLog.info(String.format("Timing history: %d steps compared with the last %d runs, %d regressions, saved: %s",
+                compared, Math.min(runCount, TestConfig.PERF_HISTORY_RUNS), regressions, REPORT));
+    }
+
+    private static void save(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path run = dir.resolve(new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date(started))
+                + "-" + ProcessHandle.current().pid() + ".tsv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(run, StandardCharsets.UTF_8))) {
+            new TreeMap<>(samples).forEach((key, values) -> {
+                synchronized (values) {
+                    values.forEach(millis -> out.println(key + "\t" + String.format("%.1f", millis)));
+                }
+            });
+        }
+    }
+
+    /**
+     * Readable and unique name of everything that makes timings comparable
+     */
+    private static String environment() {
+        String settings = String.join("|", TestConfig.BROWSER, String.valueOf(TestConfig.HEADLESS),
+                TestConfig.VIEWPORT_WIDTH + "x" + TestConfig.VIEWPORT_HEIGHT, TestConfig.BASE_URL,
+                TestConfig.NETWORK_MODE, TestConfig.HAR_VERSION, TestConfig.SITE_FINGERPRINT,
+                ThrottlingProfile.current().getName());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(settings.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return (TestConfig.BROWSER + "-" + ThrottlingProfile.current().getName()).replaceAll("[^a-zA-Z0-9-]", "_")
+                    + "-" + hex;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Samples of one step over the tests of this run, each divided by its test's median in the earlier runs
+     */
+    private static class Step {
+        private final String name;
+        private final List<Double> current = new ArrayList<>();
+        private final List<Double> before = new ArrayList<>();
+        private String slowestTest = "";
+        private double slowestRatio;
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        void add(String test, double millis, double[] runMedians) {
+            double scale = RegressionStats.median(runMedians);
+            if (scale <= 0) {
+                return;
+            }
+            double ratio = millis / scale;
+            current.add(ratio);
+            for (double runMedian : runMedians) {
+                before.add(runMedian / scale);
+            }
+            if (ratio > slowestRatio) {
+                slowestRatio = ratio;
+                slowestTest = test;
+            }
+        }
+    }
+
+    private static double[] toArray(List<Double> values) {
+        synchronized (values) {
+            return values.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.quarantine;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+import com.example.report.RunReports;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outcome of each test in its recent runs, the input of the quarantine
+ * Stored as tab separated lines: test id, run, outcome, oldest run first, at
+ * most quarantine.window runs per test. A run's outcome is PASSED when the
+ * test passed at the first attempt, FLAKY when it failed and then passed on a
+ * retry, FAILED when no attempt passed. Parameterized tests are one test; the
+ * worst outcome of their invocations counts.
+ * This run's outcomes are merged into the file when the test plan finishes,
+ * under a file lock so parallel forks do not lose each other's runs, and
+ * replace what the run merged before surefire's reruns.
+ */
+public class FlakyHistory {
+
+    public enum Outcome { PASSED, FLAKY, FAILED }
+
+    private static final Path HISTORY = Paths.get(TestConfig.QUARANTINE_HISTORY);
+    private static final String RUN = System.currentTimeMillis() + "-" + ProcessHandle.current().pid();
+    // Test id -> attempt key (invocation, data partition) -> outcome in this run
+    private static final Map<String, Map<String, Outcome>> attempts = new ConcurrentHashMap<>();
+    private static boolean reportRegistered = false;
+
+    private FlakyHistory() {
+    }
+
+    /**
+     * Records one attempt of a test; attempts with the same key are retries of each other
+     */
+    public static void attempt(String testId, String attemptKey, boolean passed) {
+        registerReport();
+        attempts.computeIfAbsent(testId, id -> new ConcurrentHashMap<>())
+                .merge(attemptKey, passed ? Outcome.PASSED : Outcome.FAILED,
+                        (before, now) -> before == now ? now : Outcome.FLAKY);
+    }
+
+    /**
+     * Outcomes of every test in the stored runs, oldest first
+     */
+    public static Map<String, List<Outcome>> load() {
+        Map<String, List<Outcome>> history = new TreeMap<>();
+        if (!Files.exists(HISTORY)) {
+            return history;
+        }
+        try {
+            for (String line : Files.readAllLines(HISTORY, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (fields.length == 3) {
+                    history.computeIfAbsent(fields[0], id -> new ArrayList<>()).add(Outcome.valueOf(fields[2]));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            EventLog.error("Failed to read flaky test history " + HISTORY + ": " + e.getMessage());
+        }
+        return history;
+    }
+
+    private static Outcome outcome(Map<String, Outcome> byAttempt) {
+        Outcome worst = Outcome.PASSED;
+        for (Outcome outcome : byAttempt.values()) {
+            if (outcome.ordinal() > worst.ordinal()) {
+                worst = outcome;
+            }
+        }
+        return worst;
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("flaky-history", FlakyHistory::save);
+        }
+    }
+
+    private static void save() {
+        Path lockFile = Paths.get(TestConfig.QUARANTINE_HISTORY + ".lock");
+        try (FileChannel channel = new RandomAccessFile(lockFile.toFile(), "rw").getChannel();
+             FileLock ignored = channel.lock()) {
+            Map<String, List<String>> lines = new LinkedHashMap<>();
+            if (Files.exists(HISTORY)) {
+                for (String line : Files.readAllLines(HISTORY, StandardCharsets.UTF_8)) {
+                    String[] fields = line.split("\t", 3);
+                    if (fields.length < 2 || !fields[1].equals(RUN)) {
+                        lines.computeIfAbsent(fields[0], id -> new ArrayList<>()).add(line);
+                    }
+                }
+            }
+            attempts.forEach((testId, byAttempt) -> lines.computeIfAbsent(testId, id -> new ArrayList<>())
+                    .add(testId + "\t" + RUN + "\t" + outcome(byAttempt)));
+            List<String> kept = new ArrayList<>();
+            lines.values().forEach(runs -> kept.addAll(
+                    runs.subList(Math.max(0, runs.size() - TestConfig.QUARANTINE_WINDOW), runs.size())));
+            Files.write(HISTORY, kept, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            EventLog.error("Failed to write flaky test history: " + e.getMessage());
+            return;
+        }
+        Quarantine.reportReleased(load());
+    }
+}
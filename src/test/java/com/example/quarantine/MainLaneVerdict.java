@@ -0,0 +1,70 @@
+package com.example.quarantine;
+
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fails the build on main lane failures, after the quarantine lane has run
+ *
+ * The main lane runs with testFailureIgnore, otherwise Maven stops before the
+ * quarantine lane in exactly the builds where something failed, and the
+ * quarantined tests never run, retry or add to the history. The pom runs this
+ * after both lanes; it reads the main lane's surefire reports written by this
+ * build, so reports left by earlier builds do not count.
+ *
+ * Arguments: reports directory, build start (maven.build.timestamp),
+ * skipTests, maven.test.failure.ignore
+ */
+public final class MainLaneVerdict {
+
+    private static final String TIMESTAMP_FORMAT = "yyyyMMdd-HHmmss.SSS";
+
+    private MainLaneVerdict() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Boolean.parseBoolean(args[2]) || Boolean.parseBoolean(args[3])) {
+            return;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(TIMESTAMP_FORMAT);
+        // Maven formats the build timestamp in UTC
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        long buildStarted = format.parse(args[1]).getTime();
+
+        Path reports = Paths.get(args[0]);
+        if (!Files.isDirectory(reports)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(reports)) {
+            files = list.filter(file -> file.getFileName().toString().matches("TEST-.*\\.xml"))
+                    .filter(file -> file.toFile().lastModified() >= buildStarted)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        List<String> failed = new ArrayList<>();
+        for (Path file : files) {
+            // Counts after surefire's reruns: a test that passed on a rerun is a flake, not a failure
+            Element suite = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile()).getDocumentElement();
+            int failures = Integer.parseInt(suite.getAttribute("failures")) + Integer.parseInt(suite.getAttribute("errors"));
+            if (failures > 0) {
+                failed.add(suite.getAttribute("name") + " (" + failures + ")");
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Main lane test failures in " + String.join(", ", failed)
+                    + ", see " + reports);
+        }
+        System.out.println("Main lane: no failures in " + files.size() + " test classes");
+    }
+}
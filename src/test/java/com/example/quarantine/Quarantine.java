@@ -0,0 +1,189 @@
+package com.example.quarantine;
+
+import com.example.config.TestConfig;
+import com.example.events.EventLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Which tests are chronically flaky and run in the quarantine lane (-Dquarantine=true)
+ *
+ * A test's instability is the share of its last quarantine.window runs that
+ * were flaky, plus every switch between passing and failing from one run to
+ * the next. A test that simply broke switches once; a flaky one keeps
+ * switching. A test with at least quarantine.min.runs runs, at least two
+ * unstable runs and an instability of quarantine.threshold or more is
+ * quarantined, so a single break never moves a failing test out of the way. It returns to the main lane
+ * once its last quarantine.stable.runs runs all passed at the first attempt.
+ *
+ * Lanes (quarantine.lane): "main" runs everything else, "quarantine" runs only
+ * the quarantined tests, "all" runs every test as usual. The decision is made
+ * from the history as it was when the JVM started. The main lane writes it to
+ * quarantine.decision with the build's id (report.run), and the quarantine
+ * lane of the same build takes it from there: by then the history holds the
+ * main lane's outcomes too, and a test that just crossed the threshold would
+ * otherwise run a second time in the same build.
+ */
+public final class Quarantine {
+
+    public enum Lane { ALL, MAIN, QUARANTINE }
+
+    private static final Path DECISION = Paths.get(TestConfig.QUARANTINE_DECISION);
+    private static final String BUILD = "build";
+    // One switch is a test that broke, not one that flakes
+    private static final int MIN_UNSTABLE_RUNS = 2;
+
+    private static Map<String, String> quarantined;
+
+    private Quarantine() {
+    }
+
+    public static Lane lane() {
+        return Lane.valueOf(TestConfig.QUARANTINE_LANE.toUpperCase());
+    }
+
+    /**
+     * Method level id of a test, the same for all invocations of a parameterized test
+     */
+    public static String testId(String uniqueId) {
+        int invocation = uniqueId.indexOf("/[test-template-invocation:");
+        if (invocation < 0) {
+            invocation = uniqueId.indexOf("/[dynamic-");
+        }
+        return invocation < 0 ? uniqueId : uniqueId.substring(0, invocation);
+    }
+
+    public static boolean isQuarantined(String uniqueId) {
+        return quarantined().containsKey(testId(uniqueId));
+    }
+
+    /**
+     * Whether the class or one of its tests has to run in the quarantine lane
+     */
+    public static boolean hasQuarantinedTests(String containerUniqueId) {
+        return quarantined().keySet().stream().anyMatch(id -> id.startsWith(containerUniqueId + "/"));
+    }
+
+    public static boolean isEmpty() {
+        return quarantined().isEmpty();
+    }
+
+    private static synchronized Map<String, String> quarantined() {
+        if (quarantined == null) {
+            quarantined = new TreeMap<>();
+            if (!TestConfig.QUARANTINE) {
+                return quarantined;
+            }
+            Map<String, String> decided = lane() == Lane.QUARANTINE ? readDecision() : null;
+            if (decided != null) {
+                quarantined.putAll(decided);
+                return quarantined;
+            }
+            FlakyHistory.load().forEach((testId, runs) -> {
+                String reason = reason(runs);
+                if (reason != null) {
+                    quarantined.put(testId, reason);
+                }
+            });
+            quarantined.forEach((testId, reason) ->
+                    EventLog.warning("⚠ Quarantined (" + reason + "), runs in the quarantine lane: " + testId));
+            if (lane() == Lane.MAIN) {
+                writeDecision(quarantined);
+            }
+        }
+        return quarantined;
+    }
+
+    /**
+     * The main lane's decision for this build, or null when there is none
+     */
+    private static Map<String, String> readDecision() {
+        if (TestConfig.REPORT_RUN.isEmpty() || !Files.exists(DECISION)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(DECISION, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(BUILD + "\t" + TestConfig.REPORT_RUN)) {
+                // Left by an earlier build
+                return null;
+            }
+            Map<String, String> decided = new TreeMap<>();
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split("\t", 2);
+                if (fields.length == 2) {
+                    decided.put(fields[0], fields[1]);
+                }
+            }
+            return decided;
+        } catch (IOException e) {
+            EventLog.error("Failed to read quarantine decision " + DECISION + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDecision(Map<String, String> decided) {
+        if (TestConfig.REPORT_RUN.isEmpty()) {
+            // No build id to tell this build's decision from an earlier one
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(BUILD + "\t" + TestConfig.REPORT_RUN);
+        decided.forEach((testId, reason) -> lines.add(testId + "\t" + reason));
+        try {
+            Path dir = DECISION.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, "quarantine-decision", ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, DECISION, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            EventLog.error("Failed to write quarantine decision " + DECISION + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Why the test is quarantined, or null when it belongs in the main lane
+     */
+    static String reason(List<FlakyHistory.Outcome> runs) {
+        if (runs.size() < TestConfig.QUARANTINE_MIN_RUNS) {
+            return null;
+        }
+        int stable = TestConfig.QUARANTINE_STABLE_RUNS;
+        if (runs.size() >= stable
+                && runs.subList(runs.size() - stable, runs.size()).stream().allMatch(run -> run == FlakyHistory.Outcome.PASSED)) {
+            return null;
+        }
+        int unstable = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            if (runs.get(i) == FlakyHistory.Outcome.FLAKY) {
+                unstable++;
+            } else if (i > 0 && runs.get(i - 1) != FlakyHistory.Outcome.FLAKY && runs.get(i - 1) != runs.get(i)) {
+                unstable++;
+            }
+        }
+        double rate = (double) unstable / runs.size();
+        return unstable >= MIN_UNSTABLE_RUNS && rate >= TestConfig.QUARANTINE_THRESHOLD
+                ? String.format("unstable in %d of the last %d runs", unstable, runs.size())
+                : null;
+    }
+
+    /**
+     * Reports tests that were quarantined when this JVM started and are stable now
+     */
+    static synchronized void reportReleased(Map<String, List<FlakyHistory.Outcome>> history) {
+        if (quarantined == null) {
+            return;
+        }
+        quarantined.keySet().stream()
+                .filter(testId -> history.containsKey(testId) && reason(history.get(testId)) == null)
+                .forEach(testId -> EventLog.info("Back in the main lane, stable again: " + testId));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.quarantine;
+
+import com.example.config.TestConfig;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+
+/**
+ * Keeps each test in its lane and records its attempts in the FlakyHistory
+ *
+ * In the main lane quarantined tests are disabled; in the quarantine lane
+ * every other test is, and classes without quarantined tests are disabled as
+ * a whole so they do not launch a browser. Dispatch workers run whatever they
+ * are given, the dispatcher keeps the lanes and the history for them.
+ */
+public class QuarantineExtension implements ExecutionCondition, TestWatcher {
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        Quarantine.Lane lane = Quarantine.lane();
+        if (!TestConfig.QUARANTINE || lane == Quarantine.Lane.ALL || isDispatchWorker()) {
+            return ConditionEvaluationResult.enabled("No quarantine lanes");
+        }
+        String uniqueId = context.getUniqueId();
+        boolean isTest = context.getTestMethod().isPresent();
+        if (lane == Quarantine.Lane.MAIN) {
+            // Asked for the first class too, so the build's decision is written before anything can fail
+            return Quarantine.isQuarantined(uniqueId)
+                    ? ConditionEvaluationResult.disabled("Quarantined as flaky, runs in the quarantine lane")
+                    : ConditionEvaluationResult.enabled("Main lane");
+        }
+        boolean inLane = isTest ? Quarantine.isQuarantined(uniqueId) : Quarantine.hasQuarantinedTests(uniqueId);
+        return inLane
+                ? ConditionEvaluationResult.enabled("Quarantine lane")
+                : ConditionEvaluationResult.disabled("Not quarantined, runs in the main lane");
+    }
+
+    @Override
+    public void testSuccessful(ExtensionContext context) {
+        record(context, true);
+    }
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        record(context, false);
+    }
+
+    private static void record(ExtensionContext context, boolean passed) {
+        if (TestConfig.QUARANTINE && !isDispatchWorker()) {
+            // Surefire reruns a failed test with the same unique id
+            FlakyHistory.attempt(Quarantine.testId(context.getUniqueId()), context.getUniqueId(), passed);
+        }
+    }
+
+    private static boolean isDispatchWorker() {
+        return System.getProperty("dispatch.worker") != null;
+    }
+}
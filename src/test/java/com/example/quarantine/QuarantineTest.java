@@ -0,0 +1,53 @@
+package com.example.quarantine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.quarantine.FlakyHistory.Outcome.FAILED;
+import static com.example.quarantine.FlakyHistory.Outcome.FLAKY;
+import static com.example.quarantine.FlakyHistory.Outcome.PASSED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the quarantine decision with the default settings, no browser needed
+ */
+class QuarantineTest {
+
+    @Test
+    void testThatSimplyBrokeIsNotQuarantined() {
+        assertThat(Quarantine.reason(List.of(PASSED, PASSED, PASSED, PASSED, FAILED))).isNull();
+        assertThat(Quarantine.reason(List.of(PASSED, PASSED, PASSED, PASSED, FAILED, FAILED, FAILED))).isNull();
+    }
+
+    @Test
+    void testThatKeepsSwitchingIsQuarantined() {
+        assertThat(Quarantine.reason(List.of(PASSED, FAILED, PASSED, PASSED, FAILED)))
+                .isEqualTo("unstable in 3 of the last 5 runs");
+    }
+
+    @Test
+    void testThatNeedsRetriesIsQuarantined() {
+        assertThat(Quarantine.reason(List.of(PASSED, FLAKY, PASSED, FLAKY, PASSED)))
+                .isEqualTo("unstable in 2 of the last 5 runs");
+    }
+
+    @Test
+    void singleFlakyRunIsNotQuarantined() {
+        assertThat(Quarantine.reason(List.of(PASSED, PASSED, FLAKY, PASSED, PASSED))).isNull();
+    }
+
+    @Test
+    void tooFewRunsAreNotJudged() {
+        assertThat(Quarantine.reason(List.of(FAILED, PASSED, FAILED, PASSED))).isNull();
+    }
+
+    @Test
+    void stableRunsBringTestBack() {
+        List<FlakyHistory.Outcome> runs = new ArrayList<>(List.of(FAILED, PASSED, FAILED, PASSED, FLAKY));
+        assertThat(Quarantine.reason(runs)).isNotNull();
+        runs.addAll(List.of(PASSED, PASSED, PASSED, PASSED, PASSED));
+        assertThat(Quarantine.reason(runs)).isNull();
+    }
+}
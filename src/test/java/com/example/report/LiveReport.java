@@ -0,0 +1,230 @@
+package com.example.report;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventSink;
+import com.example.events.EventType;
+import com.example.events.NdjsonSink;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming report built from the event log while the run is going
+ *
+ * Every result is appended to results.ndjson as soon as the test finishes,
+ * with its duration, retries and artifacts; artifacts that arrive later (a
+ * screenshot taken after the failure is reported) follow as their own lines.
+ * A JUnit XML file for this process is rewritten at most every few seconds,
+ * since each write covers every result so far, and when the run finishes.
+ * Both live under report.dir, so a killed run still leaves everything up to
+ * its last finished test in the results file, and all but its last few
+ * seconds in the XML.
+ *
+ * The results file is kept between runs, so every line carries the run id
+ * (report.run, set per build by the pom) and readers keep the latest run.
+ */
+public class LiveReport implements EventSink {
+
+    static final String RESULTS_FILE = "results.ndjson";
+    private static final long PID = ProcessHandle.current().pid();
+    private static final long XML_INTERVAL_MS = 5_000;
+    private static final Set<EventType> RESULT_TYPES = Set.of(
+            EventType.TEST_PASSED, EventType.TEST_FAILED, EventType.TEST_ABORTED, EventType.TEST_DISABLED);
+
+    private final String run = TestConfig.REPORT_RUN.isEmpty() ? PID + "-" + System.currentTimeMillis() : TestConfig.REPORT_RUN;
+    private final Path dir = Paths.get(TestConfig.REPORT_DIR);
+    private final NdjsonSink results = new NdjsonSink(dir.resolve(RESULTS_FILE).toString());
+    private final Map<String, TestResult> byId = new LinkedHashMap<>();
+    // Artifacts and retries published without an id are matched by display name
+    private final Map<String, String> lastIdByName = new HashMap<>();
+    private long xmlWrittenAt = 0;
+    private boolean xmlPending = false;
+
+    @Override
+    public void accept(Event event) {
+        switch (event.getType()) {
+            case RUN_STARTED:
+            case TEST_STARTED:
+                rememberId(event);
+                results.accept(tagged(event));
+                break;
+            case RUN_FINISHED:
+                writeJUnitXmlIfPending();
+                break;
+            case TEST_RETRY:
+                result(event).retries++;
+                break;
+            case ARTIFACT:
+                TestResult owner = result(event);
+                owner.artifacts.add(String.valueOf(event.getAttribute("path")));
+                if (owner.type != null) {
+                    // The result is out already, add the artifact to it
+                    results.accept(new Event(EventType.ARTIFACT, event.getTest(), null)
+                            .with("run", run)
+                            .with("id", owner.id)
+                            .with("kind", event.getAttribute("kind"))
+                            .with("path", event.getAttribute("path")));
+                    updateJUnitXml();
+                }
+                break;
+            default:
+                if (RESULT_TYPES.contains(event.getType())) {
+                    TestResult result = result(event);
+                    result.type = event.getType();
+                    result.message = event.getMessage();
+                    Object duration = event.getAttribute("durationMs");
+                    result.durationMs = duration instanceof Number ? ((Number) duration).longValue() : 0;
+                    results.accept(new Event(event.getType(), event.getTest(), event.getMessage())
+                            .with("run", run)
+                            .with("id", result.id)
+                            .with("profile", event.getAttribute("profile"))
+                            .with("durationMs", result.durationMs)
+                            .with("retries", result.retries)
+                            .with("artifacts", result.artifacts));
+                    updateJUnitXml();
+                }
+        }
+    }
+
+    @Override
+    public void flush() {
+        results.flush();
+    }
+
+    @Override
+    public void close() {
+        results.close();
+        writeJUnitXmlIfPending();
+    }
+
+    /**
+     * Copy of a published event with the run id added, published events are not changed
+     */
+    private Event tagged(Event event) {
+        Event copy = new Event(event.getType(), event.getTest(), event.getMessage()).with("run", run);
+        event.getAttributes().forEach(copy::with);
+        return copy;
+    }
+
+    private void rememberId(Event event) {
+        Object id = event.getAttribute("id");
+        if (id != null && event.getTest() != null) {
+            lastIdByName.put(event.getTest(), id.toString());
+        }
+    }
+
+    private TestResult result(Event event) {
+        Object id = event.getAttribute("id");
+        String key = id != null ? id.toString() : lastIdByName.getOrDefault(event.getTest(), event.getTest());
+        return byId.computeIfAbsent(key, k -> new TestResult(k, event.getTest()));
+    }
+
+    /**
+     * Rewrites the XML when the last write is old enough, otherwise leaves it for a later result or the end of the run
+     */
+    private void updateJUnitXml() {
+        xmlPending = true;
+        if (System.currentTimeMillis() - xmlWrittenAt >= XML_INTERVAL_MS) {
+            writeJUnitXmlIfPending();
+        }
+    }
+
+    private void writeJUnitXmlIfPending() {
+        if (xmlPending) {
+            xmlPending = false;
+            xmlWrittenAt = System.currentTimeMillis();
+            writeJUnitXml();
+        }
+    }
+
+    private void writeJUnitXml() {
+        int failures = 0;
+        int skipped = 0;
+        double time = 0;
+        StringBuilder cases = new StringBuilder();
+        for (TestResult result : byId.values()) {
+            if (result.type == null) {
+                continue;
+            }
+            time += result.durationMs / 1000.0;
+            cases.append("  <testcase classname=\"").append(xml(className(result.id)))
+                    .append("\" name=\"").append(xml(result.name))
+                    .append("\" time=\"").append(String.format("%.3f", result.durationMs / 1000.0)).append("\">\n");
+            if (result.type == EventType.TEST_FAILED) {
+                failures++;
+                cases.append("    <failure message=\"").append(xml(String.valueOf(result.message))).append("\"/>\n");
+            } else if (result.type != EventType.TEST_PASSED) {
+                skipped++;
+                cases.append("    <skipped message=\"").append(xml(String.valueOf(result.message))).append("\"/>\n");
+            }
+            if (result.retries > 0 || !result.artifacts.isEmpty()) {
+                cases.append("    <system-out>").append(xml("Retries: " + result.retries));
+                // Attachment lines as understood by the Jenkins JUnit attachments plugin
+                result.artifacts.forEach(path -> cases.append(xml("\n[[ATTACHMENT|" + path + "]]")));
+                cases.append("</system-out>\n");
+            }
+            cases.append("  </testcase>\n");
+        }
+        long tests = byId.values().stream().filter(result -> result.type != null).count();
+        String document = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<testsuite name=\"live-" + PID + "\" tests=\"" + tests + "\" failures=\"" + failures
+                + "\" errors=\"0\" skipped=\"" + skipped + "\" time=\"" + String.format("%.3f", time) + "\">\n"
+                + cases + "</testsuite>\n";
+        try {
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, "TEST-live-", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(document);
+            }
+            Files.move(temp, dir.resolve("TEST-live-" + PID + ".xml"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Runs on the event log thread, so report straight to stderr
+            System.err.println("Failed to write live JUnit report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Test class from a unique id such as "[engine:junit-jupiter]/[class:com.example.tests.SauceDemoTest]/[method:...]"
+     */
+    private static String className(String uniqueId) {
+        int start = uniqueId.indexOf("[class:");
+        if (start < 0) {
+            return "unknown";
+        }
+        int end = uniqueId.indexOf(']', start);
+        return uniqueId.substring(start + "[class:".length(), end);
+    }
+
+    private static String xml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replaceAll("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F]", "");
+    }
+
+    private static class TestResult {
+        private final String id;
+        private final String name;
+        private final List<String> artifacts = new ArrayList<>();
+        private EventType type;
+        private String message;
+        private long durationMs;
+        private int retries;
+
+        TestResult(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.report;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.IOException;
+
+/**
+ * Starts the live report for each test run and writes the end-of-run reports
+ * (registered through META-INF/services)
+ *
+ * Subscribes a LiveReport to the event log once per JVM (once per run in the
+ * test daemon, which loads this class afresh for every run), announces how many
+ * tests the run has planned so progress can be shown, and serves the progress
+ * page when report.port is set. When the plan finishes, the RunReports of this
+ * run are written before RUN_FINISHED. Dispatch workers run one plan per test
+ * and write those reports once, when they run out of tests. They serve no
+ * page and the dispatcher's JVM has no test plan of its own, so run the page
+ * from a surefire fork or open results.ndjson directly.
+ */
+public class LiveReportListener implements TestExecutionListener {
+
+    private static LiveReport report;
+    private LiveReportServer server;
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        subscribe();
+        // The quarantine lane runs tests the main lane has already planned and skipped
+        long tests = "quarantine".equals(TestConfig.QUARANTINE_LANE) ? 0 : testPlan.countTestIdentifiers(TestIdentifier::isTest);
+        EventLog.publish(new Event(EventType.RUN_STARTED, null, null).with("tests", tests));
+
+        if (TestConfig.REPORT_PORT > 0 && System.getProperty("dispatch.worker") == null) {
+            try {
+                server = LiveReportServer.start(TestConfig.REPORT_PORT);
+                EventLog.info("Live report: http://localhost:" + TestConfig.REPORT_PORT + "/");
+            } catch (IOException e) {
+                // Another fork already serves the page, it reads the same results file
+                server = null;
+            }
+        }
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (System.getProperty("dispatch.worker") == null) {
+            RunReports.write();
+        }
+        EventLog.publish(new Event(EventType.RUN_FINISHED, null, null));
+        EventLog.flush();
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+        if (LiveReportListener.class.getClassLoader() != EventLog.class.getClassLoader()) {
+            // A daemon run's copy of this class: the next run subscribes its own report
+            unsubscribe();
+        }
+    }
+
+    private static synchronized void subscribe() {
+        if (report == null) {
+            report = new LiveReport();
+            EventLog.subscribe(report);
+        }
+    }
+
+    private static synchronized void unsubscribe() {
+        if (report != null) {
+            EventLog.unsubscribe(report);
+            report = null;
+        }
+    }
+}
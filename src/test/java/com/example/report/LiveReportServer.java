@@ -0,0 +1,127 @@
+package com.example.report;
+
+import com.example.config.TestConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Local progress page for a running suite (-Dreport.port=8090)
+ *
+ * The page polls results.ndjson, which every fork appends to, and shows
+ * progress against the planned tests, the tests running now and failures with
+ * their artifacts. Only the run of the last RUN_STARTED line is shown, earlier
+ * runs stay in the file. Artifacts are served from target/ only.
+ */
+public class LiveReportServer {
+
+    private static final Path ARTIFACT_ROOT = Paths.get("target").toAbsolutePath().normalize();
+
+    private final HttpServer server;
+
+    private LiveReportServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static LiveReportServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", LiveReportServer::page);
+        server.createContext("/results.ndjson", LiveReportServer::results);
+        server.createContext("/files/", LiveReportServer::artifact);
+        server.start();
+        return new LiveReportServer(server);
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void page(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "text/html; charset=utf-8", PAGE.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void results(HttpExchange exchange) throws IOException {
+        Path file = Paths.get(TestConfig.REPORT_DIR, LiveReport.RESULTS_FILE);
+        byte[] body = Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+        send(exchange, 200, "application/x-ndjson; charset=utf-8", body);
+    }
+
+    private static void artifact(HttpExchange exchange) throws IOException {
+        String relative = exchange.getRequestURI().getPath().substring("/files/".length());
+        Path file = Paths.get(relative).toAbsolutePath().normalize();
+        if (!file.startsWith(ARTIFACT_ROOT) || !Files.isRegularFile(file)) {
+            send(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        String type = Files.probeContentType(file);
+        send(exchange, 200, type != null ? type : "application/octet-stream", Files.readAllBytes(file));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static final String PAGE = "<!DOCTYPE html>\n"
+            + "<html><head><meta charset=\"utf-8\"><title>Live test report</title>\n"
+            + "<style>body{font-family:sans-serif;margin:2em}progress{width:100%;height:1.5em}"
+            + ".failed{color:#b00}li{margin:.3em 0}</style></head>\n"
+            + "<body><h1>Live test report</h1>\n"
+            + "<progress id=\"progress\" value=\"0\" max=\"1\"></progress><p id=\"counts\"></p>\n"
+            + "<h2>Running</h2><ul id=\"running\"></ul>\n"
+            + "<h2>Failures</h2><ul id=\"failures\"></ul>\n"
+            + "<script>\n"
+            + "const RESULTS = ['TEST_PASSED', 'TEST_FAILED', 'TEST_ABORTED', 'TEST_DISABLED'];\n"
+            + "function esc(s) { const d = document.createElement('div'); d.textContent = s == null ? '' : s; return d.innerHTML; }\n"
+            + "async function refresh() {\n"
+            + "  const text = await (await fetch('results.ndjson')).text();\n"
+            + "  const events = [];\n"
+            + "  for (const line of text.split('\\n')) {\n"
+            + "    if (!line) continue;\n"
+            + "    try { events.push(JSON.parse(line)); } catch (err) { continue; }\n"
+            + "  }\n"
+            + "  const started = events.filter(e => e.type === 'RUN_STARTED' && e.data).pop();\n"
+            + "  const run = started && started.data.run;\n"
+            + "  let planned = 0; const running = new Map(); const done = new Map(); const artifacts = new Map();\n"
+            + "  for (const e of events) {\n"
+            + "    if (!e.data || e.data.run !== run) continue;\n"
+            + "    const id = e.data.id || e.test;\n"
+            + "    if (e.type === 'RUN_STARTED') planned += e.data.tests;\n"
+            + "    else if (e.type === 'TEST_STARTED') running.set(id, e);\n"
+            + "    else if (e.type === 'ARTIFACT') (artifacts.get(id) || artifacts.set(id, []).get(id)).push(e.data.path);\n"
+            + "    else if (RESULTS.includes(e.type)) {\n"
+            + "      running.delete(id);\n"
+            + "      // A lane that skips a test must not hide the result the other lane reported\n"
+            + "      if (e.type !== 'TEST_DISABLED' || !done.has(id)) done.set(id, e);\n"
+            + "    }\n"
+            + "  }\n"
+            + "  const counts = {}; RESULTS.forEach(t => counts[t] = 0); done.forEach(e => counts[e.type]++);\n"
+            + "  const progress = document.getElementById('progress');\n"
+            + "  progress.max = Math.max(planned, done.size, 1); progress.value = done.size;\n"
+            + "  document.getElementById('counts').textContent = done.size + ' of ' + planned + ' finished: '\n"
+            + "    + counts.TEST_PASSED + ' passed, ' + counts.TEST_FAILED + ' failed, '\n"
+            + "    + (counts.TEST_ABORTED + counts.TEST_DISABLED) + ' skipped';\n"
+            + "  document.getElementById('running').innerHTML = [...running.values()]\n"
+            + "    .map(e => '<li>' + esc(e.test) + ' (' + Math.round((Date.now() - e.ts) / 1000) + 's)</li>').join('');\n"
+            + "  document.getElementById('failures').innerHTML = [...done.entries()].filter(([id, e]) => e.type === 'TEST_FAILED')\n"
+            + "    .map(([id, e]) => '<li class=\"failed\">' + esc(e.test) + ': ' + esc(e.message)\n"
+            + "      + ' <small>(' + e.data.durationMs + ' ms, ' + e.data.retries + ' retries)</small>'\n"
+            + "      + [...new Set((e.data.artifacts || []).concat(artifacts.get(id) || []))]\n"
+            + "        .map(p => ' <a href=\"files/' + encodeURI(p) + '\">' + esc(p.split('/').pop()) + '</a>').join('')\n"
+            + "      + '</li>').join('');\n"
+            + "}\n"
+            + "refresh(); setInterval(refresh, 2000);\n"
+            + "</script></body></html>\n";
+}
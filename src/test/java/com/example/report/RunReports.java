@@ -0,0 +1,51 @@
+package com.example.report;
+
+import com.example.events.EventLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-of-run reports (visual checks, timings, flaky history, ...), written when the test plan finishes
+ *
+ * Each report registers itself the first time it has something to write.
+ * LiveReportListener writes them all when the test plan finishes, a dispatch
+ * worker when it runs out of tests. This replaces shutdown hooks, which the
+ * test daemon collected once per run: every run's hooks kept its class loader
+ * alive and only wrote when the daemon exited, all copies over the same
+ * files. A report is written again after surefire's reruns, so it must write
+ * everything it has so far and replace what it wrote before.
+ */
+public final class RunReports {
+
+    private static final Map<String, Runnable> reports = new LinkedHashMap<>();
+
+    private RunReports() {
+    }
+
+    /**
+     * Adds a report to the end of the run, once per name
+     */
+    public static synchronized void register(String name, Runnable report) {
+        reports.putIfAbsent(name, report);
+    }
+
+    /**
+     * Writes every registered report; one that fails does not stop the others
+     */
+    public static void write() {
+        List<Map.Entry<String, Runnable>> toWrite;
+        synchronized (RunReports.class) {
+            toWrite = new ArrayList<>(reports.entrySet());
+        }
+        for (Map.Entry<String, Runnable> report : toWrite) {
+            try {
+                report.getValue().run();
+            } catch (RuntimeException e) {
+                EventLog.error("Failed to write " + report.getKey() + " report: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.retry;
 
 import com.example.config.TestConfig;
+import com.example.diagnostics.ContextDiagnostics;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
 import org.junit.jupiter.api.extension.*;
 
 public class RetryExtension implements TestExecutionExceptionHandler, AfterTestExecutionCallback {
@@ -12,12 +16,18 @@ public class RetryExtension implements TestExecutionExceptionHandler, AfterTestE
         int retryCount = getRetryCount(context);
         
         if (retryCount < TestConfig.MAX_RETRIES) {
-            System.out.println(String.format(
-                "Test '%s' failed. Retry attempt %d of %d",
-                context.getDisplayName(),
-                retryCount + 1,
-                TestConfig.MAX_RETRIES
-            ));
+            EventLog.publish(new Event(EventType.TEST_RETRY, context.getDisplayName(),
+                "Test '" + context.getDisplayName() + "' failed. Retry attempt " + (retryCount + 1) + " of " + TestConfig.MAX_RETRIES)
+                .with("id", context.getUniqueId())
+                .with("attempt", retryCount + 1)
+                .with("maxRetries", TestConfig.MAX_RETRIES)
+                .with("cause", throwable.getMessage()));
+            
+            // The context is still open; the final failure is written by ScreenshotExtension
+            ContextDiagnostics diagnostics = ContextDiagnostics.of(context);
+            if (diagnostics != null) {
+                diagnostics.dump("RETRY" + (retryCount + 1));
+            }
             
             setRetryCount(context, retryCount + 1);
             
@@ -28,11 +38,12 @@ public class RetryExtension implements TestExecutionExceptionHandler, AfterTestE
             // For production, consider using a more robust solution
             throw throwable;
         } else {
-            System.out.println(String.format(
-                "Test '%s' failed after %d retries",
-                context.getDisplayName(),
-                TestConfig.MAX_RETRIES
-            ));
+            EventLog.publish(new Event(EventType.TEST_RETRY, context.getDisplayName(),
+                "Test '" + context.getDisplayName() + "' failed after " + TestConfig.MAX_RETRIES + " retries")
+                .with("id", context.getUniqueId())
+                .with("attempt", retryCount + 1)
+                .with("maxRetries", TestConfig.MAX_RETRIES)
+                .with("exhausted", true));
             throw throwable;
         }
     }
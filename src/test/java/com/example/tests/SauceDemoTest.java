@@ -1,11 +1,21 @@
 package com.example.tests;
 
 import com.example.base.BaseTest;
+import com.example.base.ReadOnly;
+import com.example.cache.ResultCacheExtension;
+import com.example.checkpoint.Checkpoint;
+import com.example.checkpoint.StartFrom;
 import com.example.config.TestConfig;
+import com.example.data.CsvDataSource;
+import com.example.impact.ImpactExtension;
 import com.example.listeners.ScreenshotExtension;
 import com.example.listeners.TestListener;
+import com.example.quarantine.QuarantineExtension;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -15,7 +25,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Page objects are lazily initialized and cached through the factory
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-@ExtendWith({TestListener.class, ScreenshotExtension.class})
+@ExtendWith({TestListener.class, ScreenshotExtension.class, ResultCacheExtension.class, ImpactExtension.class, QuarantineExtension.class})
 public class SauceDemoTest extends BaseTest {
     
     // No need to declare page objects - using pageFactory from BaseTest
@@ -27,10 +37,12 @@ public class SauceDemoTest extends BaseTest {
     void testSuccessfulLogin() {
         pageFactory.loginPage().navigate();
         assertTrue(pageFactory.loginPage().isLoginButtonVisible(), "Login button should be visible");
+        pageFactory.loginPage().checkAppearance();
         
         pageFactory.loginPage().login(TestConfig.STANDARD_USER, TestConfig.PASSWORD);
         
         assertTrue(pageFactory.productsPage().isDisplayed(), "Products list should be visible after login");
+        pageFactory.productsPage().checkAppearance();
         assertEquals("Products", pageFactory.productsPage().getPageTitle(), "Page title should be 'Products'");
         assertEquals(TestConfig.BASE_URL + "inventory.html", page.url(), "URL should be inventory page");
     }
@@ -111,11 +123,18 @@ public class SauceDemoTest extends BaseTest {
         pageFactory.checkoutPage().clickContinue();
         
         assertTrue(pageFactory.checkoutPage().isSummaryInfoDisplayed(), "Summary info should be visible");
+        Map<String, String> summary = pageFactory.checkoutPage().readSummary();
+        assertThat(summary.get("payment")).contains("SauceCard");
+        assertThat(summary.get("shipping")).contains("Pony Express");
+        assertThat(summary.get("subtotal")).contains("$29.99");
+        assertThat(summary.get("tax")).contains("$2.40");
+        assertThat(summary.get("total")).contains("$32.39");
         pageFactory.checkoutPage().clickFinish();
         
         assertTrue(pageFactory.checkoutPage().isOrderComplete(), "Order should be complete");
-        assertEquals("Thank you for your order!", pageFactory.checkoutPage().getCompleteHeader());
-        assertThat(pageFactory.checkoutPage().getCompleteText()).contains("Your order has been dispatched");
+        Map<String, String> confirmation = pageFactory.checkoutPage().readConfirmation();
+        assertEquals("Thank you for your order!", confirmation.get("header"));
+        assertThat(confirmation.get("text")).contains("Your order has been dispatched");
     }
 
     @Test
@@ -139,10 +158,8 @@ public class SauceDemoTest extends BaseTest {
     @Test
     @Order(8)
     @DisplayName("Test sorting products by price (low to high)")
+    @ReadOnly
     void testProductSortingLowToHigh() {
-        pageFactory.loginPage().navigate();
-        pageFactory.loginPage().login(TestConfig.STANDARD_USER, TestConfig.PASSWORD);
-        
         pageFactory.productsPage().sortProducts("lohi");
         
         String firstPrice = pageFactory.productsPage().getFirstProductPrice();
@@ -153,10 +170,8 @@ public class SauceDemoTest extends BaseTest {
     @Test
     @Order(9)
     @DisplayName("Test sorting products by name (A to Z)")
+    @ReadOnly
     void testProductSortingNameAtoZ() {
-        pageFactory.loginPage().navigate();
-        pageFactory.loginPage().login(TestConfig.STANDARD_USER, TestConfig.PASSWORD);
-        
         pageFactory.productsPage().sortProducts("az");
         
         int productCount = pageFactory.productsPage().getProductCount();
@@ -195,18 +210,24 @@ public class SauceDemoTest extends BaseTest {
     @Test
     @Order(12)
     @DisplayName("Test checkout with missing information")
+    @StartFrom(Checkpoint.CHECKOUT_STEP_ONE)
     void testCheckoutWithMissingInformation() {
-        pageFactory.loginPage().navigate();
-        pageFactory.loginPage().login(TestConfig.STANDARD_USER, TestConfig.PASSWORD);
-        
-        pageFactory.productsPage().addProductToCart("sauce-labs-backpack");
-        pageFactory.productsPage().goToCart();
-        pageFactory.cartPage().proceedToCheckout();
-        
         // Try to continue without filling information
         pageFactory.checkoutPage().clickContinue();
         
         // Should show error (page should still be on checkout step one)
         assertTrue(page.isVisible("[data-test='error']"), "Error message should be displayed");
     }
+
+    @ParameterizedTest(name = "[{index}] Checkout information for {0} {1} ({2})")
+    @Order(13)
+    @CsvDataSource("/data/checkout-customers.csv")
+    @StartFrom(Checkpoint.CHECKOUT_STEP_ONE)
+    void testCheckoutInformationFromData(String firstName, String lastName, String postalCode) {
+        pageFactory.checkoutPage().fillCheckoutInformation(firstName, lastName, postalCode);
+        pageFactory.checkoutPage().clickContinue();
+        
+        assertTrue(pageFactory.checkoutPage().isSummaryInfoDisplayed(),
+                "Summary info should be visible for " + firstName + " " + lastName);
+    }
 }
@@ -1,10 +1,13 @@
 package com.example.tests;
 
 import com.example.base.BaseTest;
+import com.example.cache.ResultCacheExtension;
 import com.example.config.TestConfig;
+import com.example.impact.ImpactExtension;
 import com.example.factory.PageFactory;
 import com.example.listeners.ScreenshotExtension;
 import com.example.listeners.TestListener;
+import com.example.quarantine.QuarantineExtension;
 import com.example.pages.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * This approach provides flexible, generic page object creation
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-@ExtendWith({TestListener.class, ScreenshotExtension.class})
+@ExtendWith({TestListener.class, ScreenshotExtension.class, ResultCacheExtension.class, ImpactExtension.class, QuarantineExtension.class})
 public class SauceDemoTestWithFactory extends BaseTest {
     
     private PageFactory pageFactory;
@@ -1,10 +1,15 @@
 package com.example.tests;
 
 import com.example.base.BaseTest;
+import com.example.cache.ResultCacheExtension;
+import com.example.checkpoint.Checkpoint;
+import com.example.checkpoint.StartFrom;
 import com.example.base.PageManager;
 import com.example.config.TestConfig;
+import com.example.impact.ImpactExtension;
 import com.example.listeners.ScreenshotExtension;
 import com.example.listeners.TestListener;
+import com.example.quarantine.QuarantineExtension;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 
@@ -16,7 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * This approach creates page objects only when needed
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-@ExtendWith({TestListener.class, ScreenshotExtension.class})
+@ExtendWith({TestListener.class, ScreenshotExtension.class, ResultCacheExtension.class, ImpactExtension.class, QuarantineExtension.class})
 public class SauceDemoTestWithPageManager extends BaseTest {
     
     private PageManager pageManager;
@@ -43,20 +48,20 @@ public class SauceDemoTestWithPageManager extends BaseTest {
     @Test
     @Order(2)
     @DisplayName("Test complete checkout with PageManager")
+    @StartFrom(Checkpoint.CHECKOUT_STEP_TWO)
     void testCompleteCheckout() {
-        pageManager.getLoginPage().navigate();
-        pageManager.getLoginPage().login(TestConfig.STANDARD_USER, TestConfig.PASSWORD);
-        
-        pageManager.getProductsPage().addProductToCart("sauce-labs-backpack");
-        pageManager.getProductsPage().goToCart();
-        
-        assertTrue(pageManager.getCartPage().isCartItemDisplayed(), "Cart should have items");
-        pageManager.getCartPage().proceedToCheckout();
-        
-        pageManager.getCheckoutPage().fillCheckoutInformation("John", "Doe", "12345");
-        pageManager.getCheckoutPage().clickContinue();
+        assertTrue(pageManager.getCheckoutPage().isSummaryInfoDisplayed(), "Summary info should be visible");
         pageManager.getCheckoutPage().clickFinish();
         
         assertTrue(pageManager.getCheckoutPage().isOrderComplete(), "Order should be complete");
     }
+
+    @Test
+    @Order(3)
+    @DisplayName("Test cart contents with PageManager")
+    @StartFrom(Checkpoint.CART_WITH_BACKPACK)
+    void testCartContents() {
+        assertTrue(pageManager.getCartPage().isCartItemDisplayed(), "Cart should have items");
+        assertEquals(1, pageManager.getCartPage().getCartItemCount(), "Cart should have exactly 1 item");
+    }
 }
@@ -0,0 +1,158 @@
+package com.example.visual;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perceptual hash and pixel diff of screenshots
+ *
+ * The hash is a difference hash: the image is averaged down to a 17x16 grid of
+ * luminance cells and each bit says whether a cell is brighter than its right
+ * neighbour. Rendering noise and small text changes leave it unchanged, moved
+ * or restyled blocks flip bits. The pixel diff is the exact check; it splits the rows
+ * into fork-join tasks and paints differing pixels red over a faded copy of
+ * the actual image.
+ */
+final class ImageComparison {
+
+    private static final int HASH_SIZE = 16;
+    private static final int ROWS_PER_TASK = 64;
+    private static final int DIFF_COLOR = 0xFF0000;
+
+    private ImageComparison() {
+    }
+
+    static long[] hash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int columns = HASH_SIZE + 1;
+        long[] sums = new long[columns * HASH_SIZE];
+        int[] counts = new int[columns * HASH_SIZE];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * HASH_SIZE / height * columns;
+            for (int x = 0; x < width; x++) {
+                int cell = cellRow + x * columns / width;
+                sums[cell] += luminance(row[x]);
+                counts[cell]++;
+            }
+        }
+        long[] hash = new long[HASH_SIZE * HASH_SIZE / Long.SIZE];
+        int bit = 0;
+        for (int cy = 0; cy < HASH_SIZE; cy++) {
+            for (int cx = 0; cx < HASH_SIZE; cx++, bit++) {
+                int left = cy * columns + cx;
+                // Cross-multiplied averages, cells of a small image may have different sizes
+                if (sums[left] * Math.max(1, counts[left + 1]) < sums[left + 1] * Math.max(1, counts[left])) {
+                    hash[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+                }
+            }
+        }
+        return hash;
+    }
+
+    static int distance(long[] a, long[] b) {
+        int distance = 0;
+        for (int i = 0; i < a.length; i++) {
+            distance += Long.bitCount(a[i] ^ b[i]);
+        }
+        return distance;
+    }
+
+    /**
+     * Counts pixels with a channel off by more than the tolerance; call from a fork-join pool
+     */
+    static Diff diff(BufferedImage expected, BufferedImage actual, int tolerance) {
+        int width = actual.getWidth();
+        int height = actual.getHeight();
+        if (expected.getWidth() != width || expected.getHeight() != height) {
+            return new Diff(-1, (long) width * height, null);
+        }
+        int[] expectedPixels = expected.getRGB(0, 0, width, height, null, 0, width);
+        int[] pixels = actual.getRGB(0, 0, width, height, null, 0, width);
+        long differing = new Rows(expectedPixels, pixels, width, tolerance, 0, height).invoke();
+        BufferedImage image = null;
+        if (differing > 0) {
+            // Rows painted the diff into the actual pixels
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            image.setRGB(0, 0, width, height, pixels, 0, width);
+        }
+        return new Diff(differing, (long) width * height, image);
+    }
+
+    private static int luminance(int rgb) {
+        return (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+    }
+
+    /**
+     * Outcome of a pixel diff; differing is -1 when the sizes do not match
+     */
+    static class Diff {
+        final long differing;
+        final long total;
+        final BufferedImage image;
+
+        Diff(long differing, long total, BufferedImage image) {
+            this.differing = differing;
+            this.total = total;
+            this.image = image;
+        }
+
+        boolean sizeMismatch() {
+            return differing < 0;
+        }
+
+        double ratio() {
+            return sizeMismatch() ? 1 : total == 0 ? 0 : (double) differing / total;
+        }
+    }
+
+    /**
+     * Diffs a band of rows, splitting it in half until it is small enough
+     */
+    private static class Rows extends RecursiveTask<Long> {
+        private final int[] expected;
+        private final int[] actual;
+        private final int width;
+        private final int tolerance;
+        private final int from;
+        private final int to;
+
+        Rows(int[] expected, int[] actual, int width, int tolerance, int from, int to) {
+            this.expected = expected;
+            this.actual = actual;
+            this.width = width;
+            this.tolerance = tolerance;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Rows top = new Rows(expected, actual, width, tolerance, from, middle);
+                top.fork();
+                long bottom = new Rows(expected, actual, width, tolerance, middle, to).compute();
+                return top.join() + bottom;
+            }
+            long differing = 0;
+            for (int i = from * width; i < to * width; i++) {
+                int e = expected[i];
+                int a = actual[i];
+                if (Math.abs(((e >> 16) & 0xFF) - ((a >> 16) & 0xFF)) > tolerance
+                        || Math.abs(((e >> 8) & 0xFF) - ((a >> 8) & 0xFF)) > tolerance
+                        || Math.abs((e & 0xFF) - (a & 0xFF)) > tolerance) {
+                    differing++;
+                    actual[i] = DIFF_COLOR;
+                } else {
+                    // Faded grey so the red stands out
+                    int faded = 255 - (255 - luminance(a)) / 4;
+                    actual[i] = (faded << 16) | (faded << 8) | faded;
+                }
+            }
+            return differing;
+        }
+    }
+}
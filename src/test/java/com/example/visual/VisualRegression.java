@@ -0,0 +1,351 @@
+package com.example.visual;
+
+import com.example.config.TestConfig;
+import com.example.events.Event;
+import com.example.events.EventLog;
+import com.example.events.EventType;
+import com.example.pages.VisualCheck;
+import com.example.report.RunReports;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the visual checks of one test with stored baselines (-Dvisual.check=true)
+ *
+ * The test thread only captures the screenshot; the comparison is queued on a
+ * fork-join pool and the test goes on. An unchanged screenshot is byte-identical
+ * to its baseline and passes without being decoded. Otherwise the perceptual
+ * hashes are compared, and the pixel diff runs and writes the diff image. A
+ * hash match alone passes only with -Dvisual.hash.distance set, since a
+ * changed price or label leaves the hash as it was; by default the distance
+ * tells a layout shift from a content change in the report. The test waits
+ * for its comparisons when it ends and fails if any of them found a difference.
+ *
+ * Baselines live in visual.baseline.dir/<browser>/<name>.png. A check without
+ * a baseline fails with its capture attached; -Dvisual.update=true creates
+ * missing baselines and replaces ones that differ. Every check goes to
+ * target/visual/summary.csv.
+ */
+public class VisualRegression implements VisualCheck.Engine {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(TestConfig.VISUAL_THREADS);
+    private static final Map<Path, Baseline> baselines = new ConcurrentHashMap<>();
+    private static final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong waitNanos = new AtomicLong();
+    private static boolean reportRegistered = false;
+    private static byte[] fingerprint;
+
+    private final String testName;
+    private final List<ForkJoinTask<Result>> pending = new ArrayList<>();
+
+    private VisualRegression(String testName) {
+        this.testName = testName;
+    }
+
+    /**
+     * Installs the engine for the visual checks of the test on this thread, or returns null when they are off
+     */
+    public static VisualRegression start(String testName) {
+        if (!TestConfig.VISUAL_CHECK) {
+            return null;
+        }
+        registerReport();
+        VisualRegression engine = new VisualRegression(testName);
+        VisualCheck.install(engine);
+        return engine;
+    }
+
+    @Override
+    public void compare(String name, byte[] png) {
+        pending.add(pool.submit(() -> check(name, png)));
+    }
+
+    /**
+     * Waits for the test's comparisons and returns the failure to throw, if any
+     */
+    public AssertionError finish() {
+        VisualCheck.install(null);
+        long start = System.nanoTime();
+        List<String> failures = new ArrayList<>();
+        for (ForkJoinTask<Result> task : pending) {
+            try {
+                Result result = task.join();
+                if (result.outcome.failed) {
+                    failures.add(result.message());
+                }
+            } catch (RuntimeException e) {
+                failures.add("visual check failed to run: " + e.getMessage());
+            }
+        }
+        waitNanos.addAndGet(System.nanoTime() - start);
+        pending.clear();
+        return failures.isEmpty() ? null : new AssertionError("Visual differences: " + String.join("; ", failures));
+    }
+
+    private Result check(String name, byte[] png) throws IOException {
+        long start = System.nanoTime();
+        Path baselinePath = baselinePath(name);
+        Baseline baseline = baseline(baselinePath);
+        Result result;
+        if (baseline == null && TestConfig.VISUAL_UPDATE) {
+            writeBaseline(baselinePath, png);
+            EventLog.warning("⚠ New visual baseline for " + name + ": " + baselinePath);
+            result = new Result(Outcome.NEW, name, 0, null);
+        } else if (baseline == null) {
+            // Never written into the source tree unasked, the capture is kept for review instead
+            result = new Result(Outcome.MISSING, name, 0, saveActual(name, png));
+        } else if (Arrays.equals(baseline.png, png)) {
+            result = new Result(Outcome.IDENTICAL, name, 0, null);
+        } else {
+            BufferedImage actual = ImageIO.read(new ByteArrayInputStream(png));
+            int distance = ImageComparison.distance(ImageComparison.hash(actual), baseline.hash());
+            if (distance <= TestConfig.VISUAL_HASH_DISTANCE) {
+                result = new Result(Outcome.HASH_MATCH, name, 0, null);
+            } else {
+                result = pixelDiff(name, png, actual, baseline, baselinePath);
+            }
+            result.hashDistance = distance;
+        }
+        result.millis = (System.nanoTime() - start) / 1_000_000.0;
+        results.add(result);
+        return result;
+    }
+
+    private Result pixelDiff(String name, byte[] png, BufferedImage actual, Baseline baseline, Path baselinePath)
+            throws IOException {
+        ImageComparison.Diff diff = ImageComparison.diff(baseline.image(), actual, TestConfig.VISUAL_PIXEL_TOLERANCE);
+        if (!diff.sizeMismatch() && diff.ratio() <= TestConfig.VISUAL_MAX_DIFF_RATIO) {
+            return new Result(Outcome.PIXEL_MATCH, name, diff.ratio(), null);
+        }
+        if (TestConfig.VISUAL_UPDATE) {
+            writeBaseline(baselinePath, png);
+            EventLog.info("Visual baseline updated for " + name + ": " + baselinePath);
+            return new Result(Outcome.UPDATED, name, diff.ratio(), null);
+        }
+
+        Path actualPath = saveActual(name, png);
+        Path diffPath = null;
+        if (diff.image != null) {
+            diffPath = Paths.get(TestConfig.VISUAL_DIR, sanitize(testName), sanitize(name) + "-diff.png");
+            ImageIO.write(diff.image, "png", diffPath.toFile());
+            publishArtifact("visual-diff", diffPath);
+        }
+        return new Result(Outcome.FAILED, name, diff.ratio(), diffPath != null ? diffPath : actualPath)
+                .sizeMismatch(diff.sizeMismatch());
+    }
+
+    private Path saveActual(String name, byte[] png) throws IOException {
+        Path dir = Paths.get(TestConfig.VISUAL_DIR, sanitize(testName));
+        Files.createDirectories(dir);
+        Path actualPath = dir.resolve(sanitize(name) + "-actual.png");
+        Files.write(actualPath, png);
+        publishArtifact("visual-actual", actualPath);
+        return actualPath;
+    }
+
+    private void publishArtifact(String kind, Path path) {
+        EventLog.publish(new Event(EventType.ARTIFACT, testName, "Visual check saved: " + path)
+                .with("kind", kind)
+                .with("path", path.toString()));
+    }
+
+    /**
+     * Hash of the browser's baselines, read once per JVM, so cached passes are rerun after a baseline changes
+     */
+    public static synchronized byte[] baselineFingerprint() {
+        if (fingerprint == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                Path dir = Paths.get(TestConfig.VISUAL_BASELINE_DIR, TestConfig.BROWSER);
+                if (Files.isDirectory(dir)) {
+                    try (Stream<Path> files = Files.list(dir)) {
+                        for (Path file : files.sorted().collect(Collectors.toList())) {
+                            digest.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                            digest.update(Files.readAllBytes(file));
+                        }
+                    }
+                }
+                fingerprint = digest.digest();
+            } catch (IOException | NoSuchAlgorithmException e) {
+                // Cannot match a stored key, so the tests run
+                fingerprint = String.valueOf(System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return fingerprint;
+    }
+
+    private static Path baselinePath(String name) {
+        return Paths.get(TestConfig.VISUAL_BASELINE_DIR, TestConfig.BROWSER, sanitize(name) + ".png");
+    }
+
+    /**
+     * Cached baseline, reread when the file changed on disk; null when there is none
+     */
+    private static Baseline baseline(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        Baseline cached = baselines.get(path);
+        if (cached == null || cached.modified != modified) {
+            cached = new Baseline(Files.readAllBytes(path), modified);
+            baselines.put(path, cached);
+        }
+        return cached;
+    }
+
+    private static void writeBaseline(Path path, byte[] png) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        Files.write(temp, png);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        baselines.remove(path);
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9-_.]", "_");
+    }
+
+    private static synchronized void registerReport() {
+        if (!reportRegistered) {
+            reportRegistered = true;
+            RunReports.register("visual-regression", VisualRegression::report);
+        }
+    }
+
+    /**
+     * Prints how the checks were decided and writes every check to the summary
+     */
+    private static void report() {
+        if (results.isEmpty()) {
+            return;
+        }
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        double compareMillis = 0;
+        Path summary = Paths.get(TestConfig.VISUAL_DIR, "summary.csv");
+        try {
+            Files.createDirectories(summary.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(summary, StandardCharsets.UTF_8))) {
+                out.println("test,check,outcome,diff_ratio,hash_distance,compare_ms,baseline,artifact");
+                for (Result result : results) {
+                    counts.merge(result.outcome, 1, Integer::sum);
+                    compareMillis += result.millis;
+                    out.println(String.join(",", csv(result.test), csv(result.name), result.outcome.name(),
+                            String.format("%.5f", result.ratio), String.valueOf(result.hashDistance),
+                            String.format("%.1f", result.millis),
+                            csv(baselinePath(result.name).toString()),
+                            csv(result.artifact != null ? result.artifact.toString() : "")));
+                }
+            }
+            EventLog.info("Visual check summary saved: " + summary);
+        } catch (IOException e) {
+            EventLog.error("Failed to write visual check summary: " + e.getMessage());
+        }
+        EventLog.info(String.format("Visual checks: %d %s, %.0f ms comparing off the test threads, %d ms waited for by tests",
+                results.size(), counts, compareMillis, waitNanos.get() / 1_000_000));
+        results.stream()
+                .filter(result -> result.outcome.failed)
+                .forEach(result -> EventLog.warning("⚠ Visual difference in " + result.test + ": " + result.message()));
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    enum Outcome {
+        NEW(false), IDENTICAL(false), HASH_MATCH(false), PIXEL_MATCH(false), UPDATED(false), MISSING(true), FAILED(true);
+
+        private final boolean failed;
+
+        Outcome(boolean failed) {
+            this.failed = failed;
+        }
+    }
+
+    /**
+     * Baseline PNG with its image and hash decoded on first use
+     */
+    private static class Baseline {
+        private final byte[] png;
+        private final long modified;
+        private long[] hash;
+
+        Baseline(byte[] png, long modified) {
+            this.png = png;
+            this.modified = modified;
+        }
+
+        BufferedImage image() throws IOException {
+            return ImageIO.read(new ByteArrayInputStream(png));
+        }
+
+        synchronized long[] hash() throws IOException {
+            if (hash == null) {
+                hash = ImageComparison.hash(image());
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * One comparison, with the diff image or the capture kept for a failure
+     */
+    private class Result {
+        private final String test = testName;
+        private final Outcome outcome;
+        private final String name;
+        private final double ratio;
+        private final Path artifact;
+        private boolean sizeMismatch;
+        private int hashDistance;
+        private double millis;
+
+        Result(Outcome outcome, String name, double ratio, Path artifact) {
+            this.outcome = outcome;
+            this.name = name;
+            this.ratio = ratio;
+            this.artifact = artifact;
+        }
+
+        Result sizeMismatch(boolean sizeMismatch) {
+            this.sizeMismatch = sizeMismatch;
+            return this;
+        }
+
+        String message() {
+            if (outcome == Outcome.MISSING) {
+                return name + " has no baseline, see " + artifact + " and run with -Dvisual.update=true to create it";
+            }
+            if (sizeMismatch) {
+                return name + " changed size, see " + artifact;
+            }
+            // An unchanged hash means the content changed in place rather than moved
+            return String.format("%s differs in %.3f%% of pixels (%s), see %s", name, ratio * 100,
+                    hashDistance == 0 ? "content change" : "layout shift, hash distance " + hashDistance, artifact);
+        }
+    }
+}